@@ -0,0 +1,78 @@
+#!/usr/bin/env bash
+# ==============================================
+# Insert throughput: IDENTITY vs pooled sequence
+# ==============================================
+# Compares how workout_sets rows reach Postgres before and after the move to
+# pooled sequences (allocationSize 50, hibernate.jdbc.batch_size 50):
+#
+#   identity - one INSERT ... RETURNING id per row (what Hibernate does for
+#              IDENTITY columns: no batching possible)
+#   pooled   - one nextval per 50 rows, then a single multi-row INSERT (what
+#              batched inserts become with reWriteBatchedInserts=true)
+#
+# Runs against a scratch database, never the app's.
+#
+# Usage: PGHOST=localhost PGUSER=postgres ./insert_batching.sh [rows-per-txn<=50] [seconds]
+# ==============================================
+set -euo pipefail
+
+ROWS=${1:-20}
+SECONDS_PER_RUN=${2:-30}
+DB=${BENCH_DB:-fitstack_insert_bench}
+WORKDIR=$(mktemp -d)
+
+if [ "$ROWS" -gt 50 ]; then
+    echo "rows-per-txn must be at most 50 (one sequence block)" >&2
+    exit 1
+fi
+trap 'rm -rf "$WORKDIR"' EXIT
+
+dropdb --if-exists "$DB"
+createdb "$DB"
+
+psql -q -d "$DB" <<SQL
+CREATE TABLE sets_identity (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    session_id BIGINT NOT NULL,
+    exercise_id BIGINT NOT NULL,
+    set_number INT,
+    reps_completed INT,
+    weight_used NUMERIC(6, 2),
+    completed_at TIMESTAMP
+);
+CREATE TABLE sets_pooled (LIKE sets_identity INCLUDING ALL);
+ALTER TABLE sets_pooled ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE sets_pooled_id_seq INCREMENT BY 50;
+SQL
+
+# identity: one round trip per row
+{
+    echo "BEGIN;"
+    for i in $(seq 1 "$ROWS"); do
+        echo "INSERT INTO sets_identity (session_id, exercise_id, set_number, reps_completed, weight_used, completed_at) VALUES (1, 1, $i, 10, 60.00, now()) RETURNING id;"
+    done
+    echo "COMMIT;"
+} > "$WORKDIR/identity.sql"
+
+# pooled: ids come from the reserved block, rows go out together
+{
+    echo "BEGIN;"
+    echo "SELECT nextval('sets_pooled_id_seq') AS hi \\gset"
+    echo -n "INSERT INTO sets_pooled (id, session_id, exercise_id, set_number, reps_completed, weight_used, completed_at) VALUES "
+    for i in $(seq 1 "$ROWS"); do
+        if [ "$i" -gt 1 ]; then echo -n ", "; fi
+        echo -n "(:hi - 50 + $i, 1, 1, $i, 10, 60.00, now())"
+    done
+    echo ";"
+    echo "COMMIT;"
+} > "$WORKDIR/pooled.sql"
+
+for mode in identity pooled; do
+    echo "== $mode ($ROWS rows per transaction, ${SECONDS_PER_RUN}s) =="
+    tps=$(pgbench -n -c 4 -j 4 -T "$SECONDS_PER_RUN" -f "$WORKDIR/$mode.sql" "$DB" \
+        | awk '/^tps/ { print $3; exit }')
+    echo "transactions/s: $tps"
+    echo "rows/s:         $(awk -v t="$tps" -v r="$ROWS" 'BEGIN { printf "%.0f", t * r }')"
+done
+
+dropdb "$DB"
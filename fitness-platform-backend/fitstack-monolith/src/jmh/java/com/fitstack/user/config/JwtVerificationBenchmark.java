@@ -0,0 +1,79 @@
+package com.fitstack.user.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token handling for one authenticated request: the old filter path, which
+ * built a key and parser and verified the token for every claim it read (jti,
+ * email, twice in validateToken, userId), against a single
+ * {@link JwtUtil#verify} with the prebuilt parser.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=JwtVerificationBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-of-at-least-thirty-two-characters";
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 900_000L);
+        ReflectionTestUtils.setField(jwtUtil, "rememberMeExpiration", 2_592_000_000L);
+        jwtUtil.validateSecret();
+        token = jwtUtil.generateToken("athlete@example.com", 42L);
+    }
+
+    @Benchmark
+    public void perClaimParsing(Blackhole blackhole) {
+        blackhole.consume(parse(token).get("jti", String.class));
+        String email = parse(token).getSubject();
+        boolean valid = parse(token).getSubject().equals(email) && !parse(token).getExpiration().before(new Date());
+        blackhole.consume(valid);
+        blackhole.consume(parse(token).get("userId", Long.class));
+    }
+
+    @Benchmark
+    public void verifyOnce(Blackhole blackhole) {
+        VerifiedToken verified = jwtUtil.verify(token);
+        blackhole.consume(verified.jti());
+        blackhole.consume(jwtUtil.validateToken(verified, verified.email()));
+        blackhole.consume(verified.userId());
+    }
+
+    // What extractAllClaims did before: a fresh key and parser on every call
+    private static Claims parse(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,98 @@
+package com.fitstack.workout.service;
+
+import com.fitstack.workout.entity.Exercise;
+import com.fitstack.workout.entity.UserExerciseStats;
+import com.fitstack.workout.entity.WorkoutSession;
+import com.fitstack.workout.entity.WorkoutSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebuilding per-exercise stats from a user's history: the entity rebuild
+ * (group by session, summarize each, merge; {@link ExerciseStatsReference})
+ * against the columnar kernel, on the same synthetic sets (20 per session,
+ * 40 exercises). TrainingHistoryKernelsTest checks they agree.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ExerciseStatsBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ExerciseStatsBenchmark {
+
+    private static final int SETS_PER_SESSION = 20;
+    private static final int EXERCISES = 40;
+
+    @Param({ "1000", "20000", "200000" })
+    private int sets;
+
+    private List<WorkoutSet> entities;
+    private TrainingHistory history;
+    private Exercise[] exercises;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        exercises = new Exercise[EXERCISES];
+        for (int i = 0; i < EXERCISES; i++) {
+            exercises[i] = Exercise.builder().id((long) i).name("Exercise " + i).build();
+        }
+
+        entities = new ArrayList<>(sets);
+        TrainingHistory.Builder builder = new TrainingHistory.Builder(sets);
+        LocalDateTime time = LocalDateTime.of(2020, 1, 1, 7, 0);
+        WorkoutSession session = null;
+        for (int i = 0; i < sets; i++) {
+            if (i % SETS_PER_SESSION == 0) {
+                session = WorkoutSession.builder().id((long) i / SETS_PER_SESSION + 1).userId(1L).build();
+                time = time.plusDays(2);
+            }
+            time = time.plusMinutes(2);
+            Exercise exercise = exercises[random.nextInt(EXERCISES)];
+            int weightCentis = 2000 + random.nextInt(80) * 250;
+            int reps = 3 + random.nextInt(12);
+
+            entities.add(WorkoutSet.builder()
+                    .session(session)
+                    .exercise(exercise)
+                    .setNumber(i % SETS_PER_SESSION + 1)
+                    .repsCompleted(reps)
+                    .weightUsed(BigDecimal.valueOf(weightCentis, 2))
+                    .completedAt(time)
+                    .build());
+            builder.add(session.getId(), exercise.getId(), time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L,
+                    weightCentis, reps);
+        }
+        history = builder.build();
+    }
+
+    @Benchmark
+    public List<UserExerciseStats> entities() {
+        return ExerciseStatsReference.rebuild(1L, entities);
+    }
+
+    @Benchmark
+    public List<UserExerciseStats> columnar() {
+        return TrainingHistoryKernels.exerciseStats(1L, history, id -> exercises[(int) id]);
+    }
+}
@@ -0,0 +1,351 @@
+package com.fitstack.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache for analytics responses: a byte-bounded Caffeine cache on
+ * each node in front of Redis, keyed by user, scope, endpoint and parameters.
+ *
+ * Besides the TTLs, services publish an {@link AnalyticsDataChangedEvent}
+ * when they write data analytics read. After the write commits, the user's
+ * Redis hash for that scope is deleted and every node drops its local entries
+ * through Redis pub/sub. Redis being down degrades to the local tier and
+ * then to computing the response.
+ *
+ * In Redis each (scope, user) is one hash of field -> "storedAtMillis|json",
+ * so eviction is a single DEL. Entries older than the TTL are ignored on read
+ * because the hash's expiry is refreshed by every write.
+ *
+ * A response computed from data read before a change commits must not be
+ * cached after that change's eviction. Each (scope, user) has a generation,
+ * locally and in Redis, that every eviction bumps; it is read before the
+ * loader runs and the response is only cached in a tier whose generation
+ * hasn't moved since.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsCache {
+
+    public enum Scope {
+        WORKOUT, BODY
+    }
+
+    private static final String KEY_PREFIX = "analytics:";
+    private static final String GENERATION_PREFIX = "analytics:gen:";
+    private static final String EVICT_CHANNEL = "analytics:evict";
+    private static final String METRIC_REQUESTS = "fitstack.analytics.cache.requests";
+
+    private static final RedisScript<Long> WRITE_SCRIPT = loadScript("redis/analytics-cache-write.lua");
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${analytics.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.cache.local.max-bytes:67108864}")
+    private long localMaxBytes;
+
+    @Value("${analytics.cache.local.ttl-seconds:300}")
+    private long localTtlSeconds;
+
+    @Value("${analytics.cache.redis.ttl-seconds:1800}")
+    private long redisTtlSeconds;
+
+    private Cache<Key, Entry> local;
+    // Values come from one clock, so an expired generation never matches an older read
+    private Cache<Owner, Long> generations;
+    private final AtomicLong generationClock = new AtomicLong();
+
+    private Counter localHits;
+    private Counter localMisses;
+    private Counter redisHits;
+    private Counter redisMisses;
+    private Counter redisErrors;
+    private DistributionSummary payloadBytes;
+
+    @PostConstruct
+    public void init() {
+        // Weighed by serialized size, the closest cheap estimate of heap held
+        local = Caffeine.newBuilder()
+                .maximumWeight(localMaxBytes)
+                .weigher((Key key, Entry entry) -> entry.bytes())
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .build();
+        generations = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .build();
+
+        localHits = Counter.builder(METRIC_REQUESTS).tag("tier", "local").tag("result", "hit")
+                .description("Analytics responses served from this node's cache").register(meterRegistry);
+        localMisses = Counter.builder(METRIC_REQUESTS).tag("tier", "local").tag("result", "miss")
+                .description("Analytics lookups not in this node's cache").register(meterRegistry);
+        redisHits = Counter.builder(METRIC_REQUESTS).tag("tier", "redis").tag("result", "hit")
+                .description("Analytics responses served from Redis").register(meterRegistry);
+        redisMisses = Counter.builder(METRIC_REQUESTS).tag("tier", "redis").tag("result", "miss")
+                .description("Analytics responses computed after missing both tiers").register(meterRegistry);
+        redisErrors = Counter.builder(METRIC_REQUESTS).tag("tier", "redis").tag("result", "error")
+                .description("Analytics cache operations that failed against Redis").register(meterRegistry);
+        payloadBytes = DistributionSummary.builder("fitstack.analytics.cache.payload")
+                .baseUnit("bytes").description("Serialized size of cached analytics responses")
+                .register(meterRegistry);
+
+        Gauge.builder("fitstack.analytics.cache.hit_ratio", this, c -> ratio(c.localHits, c.localMisses))
+                .tag("tier", "local").description("Share of lookups served from this node's cache")
+                .register(meterRegistry);
+        Gauge.builder("fitstack.analytics.cache.hit_ratio", this, c -> ratio(c.redisHits, c.redisMisses))
+                .tag("tier", "redis").description("Share of local misses served from Redis")
+                .register(meterRegistry);
+        Gauge.builder("fitstack.analytics.cache.local.bytes", this,
+                c -> c.local.policy().eviction().flatMap(e -> e.weightedSize()).orElse(0L))
+                .baseUnit("bytes").description("Serialized size of entries in this node's cache")
+                .register(meterRegistry);
+        Gauge.builder("fitstack.analytics.cache.local.entries", this, c -> c.local.estimatedSize())
+                .description("Entries in this node's cache").register(meterRegistry);
+
+        listenerContainer.addMessageListener(
+                (message, pattern) -> onRemoteEviction(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(EVICT_CHANNEL));
+    }
+
+    /**
+     * Cached response for a user's analytics endpoint, computed by the loader on
+     * a miss in both tiers. Null results and exceptions are not cached.
+     *
+     * @param name   endpoint name, unique within the scope
+     * @param params every request parameter the response depends on
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Scope scope, Long userId, String name, String params, TypeReference<T> type,
+            Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        Key key = new Key(userId, scope, name + "?" + params);
+        Entry entry = local.getIfPresent(key);
+        if (entry != null) {
+            localHits.increment();
+            return (T) entry.value();
+        }
+        localMisses.increment();
+
+        long generation = generation(key);
+        Remote remote = readRemote(key);
+        String json = remote.json();
+        if (json != null) {
+            try {
+                T value = objectMapper.readValue(json, type);
+                redisHits.increment();
+                putLocal(key, generation, new Entry(value, json.length()));
+                return value;
+            } catch (JsonProcessingException e) {
+                // Written by an older version of the response type - recompute
+                log.debug("Discarding unreadable cached analytics {}: {}", key, e.getMessage());
+            }
+        }
+        redisMisses.increment();
+
+        T value = loader.get();
+        if (value == null) {
+            return null;
+        }
+        try {
+            json = objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize analytics {} for caching: {}", key, e.getMessage());
+            return value;
+        }
+        payloadBytes.record(json.length());
+        if (generation(key) != generation) {
+            log.debug("Not caching analytics {}: evicted while it was computed", key);
+            return value;
+        }
+        putLocal(key, generation, new Entry(value, json.length()));
+        writeRemote(key, json, remote.generation());
+        return value;
+    }
+
+    /**
+     * Evict a user's cached analytics once the change that caused the event
+     * commits, or straight away when published outside a transaction
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataChanged(AnalyticsDataChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        evictLocal(event.userId(), event.scope());
+        byte[] generationKey = generationKey(event.scope(), event.userId()).getBytes(StandardCharsets.UTF_8);
+        byte[] hashKey = redisKey(event.scope(), event.userId()).getBytes(StandardCharsets.UTF_8);
+        try {
+            // Bumped before the delete, so a write racing the delete is either deleted or refused
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.stringCommands().incr(generationKey);
+                connection.keyCommands().expire(generationKey, redisTtlSeconds);
+                connection.keyCommands().del(hashKey);
+                return null;
+            });
+            redisTemplate.convertAndSend(EVICT_CHANNEL, event.scope() + ":" + event.userId());
+        } catch (DataAccessException e) {
+            redisErrors.increment();
+            log.warn("Could not evict analytics for user {} from Redis: {}", event.userId(), e.getMessage());
+        }
+    }
+
+    private void onRemoteEviction(String message) {
+        int separator = message.indexOf(':');
+        try {
+            evictLocal(Long.valueOf(message.substring(separator + 1)),
+                    Scope.valueOf(message.substring(0, separator)));
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            log.warn("Ignoring malformed analytics eviction message '{}'", message);
+        }
+    }
+
+    private void evictLocal(Long userId, Scope scope) {
+        generations.put(new Owner(userId, scope), generationClock.incrementAndGet());
+        local.asMap().keySet().removeIf(key -> key.userId().equals(userId) && key.scope() == scope);
+    }
+
+    private long generation(Key key) {
+        Long generation = generations.getIfPresent(new Owner(key.userId(), key.scope()));
+        return generation == null ? 0 : generation;
+    }
+
+    /**
+     * Cache locally unless evicted since the generation was read. Checked again
+     * after the put: an eviction that bumped the generation in between may have
+     * already swept the entries.
+     */
+    private void putLocal(Key key, long generation, Entry entry) {
+        if (generation(key) != generation) {
+            return;
+        }
+        local.put(key, entry);
+        if (generation(key) != generation) {
+            local.invalidate(key);
+        }
+    }
+
+    /**
+     * The cached response, if fresh, and the Redis generation to write back
+     * against; a null generation means Redis is unavailable
+     */
+    private Remote readRemote(Key key) {
+        byte[] hashKey = redisKey(key.scope(), key.userId()).getBytes(StandardCharsets.UTF_8);
+        byte[] field = key.field().getBytes(StandardCharsets.UTF_8);
+        byte[] generationKey = generationKey(key.scope(), key.userId()).getBytes(StandardCharsets.UTF_8);
+        List<Object> results;
+        try {
+            results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.hashCommands().hGet(hashKey, field);
+                connection.stringCommands().get(generationKey);
+                return null;
+            });
+        } catch (DataAccessException e) {
+            redisErrors.increment();
+            log.debug("Analytics cache read from Redis failed: {}", e.getMessage());
+            return new Remote(null, null);
+        }
+
+        String generation = results.get(1) == null ? "" : results.get(1).toString();
+        Object stored = results.get(0);
+        if (stored == null) {
+            return new Remote(null, generation);
+        }
+        String value = stored.toString();
+        int separator = value.indexOf('|');
+        try {
+            if (separator <= 0
+                    || System.currentTimeMillis() - Long.parseLong(value.substring(0, separator)) > redisTtlSeconds * 1000) {
+                return new Remote(null, generation);
+            }
+        } catch (NumberFormatException e) {
+            return new Remote(null, generation);
+        }
+        return new Remote(value.substring(separator + 1), generation);
+    }
+
+    private void writeRemote(Key key, String json, String generation) {
+        if (generation == null) {
+            return;
+        }
+        try {
+            redisTemplate.execute(WRITE_SCRIPT,
+                    List.of(redisKey(key.scope(), key.userId()), generationKey(key.scope(), key.userId())),
+                    key.field(),
+                    System.currentTimeMillis() + "|" + json,
+                    String.valueOf(redisTtlSeconds),
+                    generation);
+        } catch (DataAccessException e) {
+            redisErrors.increment();
+            log.debug("Analytics cache write to Redis failed: {}", e.getMessage());
+        }
+    }
+
+    private static String redisKey(Scope scope, Long userId) {
+        return KEY_PREFIX + scope.name().toLowerCase() + ":" + userId;
+    }
+
+    private static String generationKey(Scope scope, Long userId) {
+        return GENERATION_PREFIX + scope.name().toLowerCase() + ":" + userId;
+    }
+
+    private static RedisScript<Long> loadScript(String path) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    private static double ratio(Counter hits, Counter misses) {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private record Key(Long userId, Scope scope, String field) {
+    }
+
+    private record Owner(Long userId, Scope scope) {
+    }
+
+    private record Remote(String json, String generation) {
+    }
+
+    private record Entry(Object value, int bytes) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.fitstack.config;
+
+/**
+ * Published when data behind a user's analytics changes, so cached analytics
+ * for that user and scope are evicted once the change commits.
+ */
+public record AnalyticsDataChangedEvent(Long userId, AnalyticsCache.Scope scope) {
+}
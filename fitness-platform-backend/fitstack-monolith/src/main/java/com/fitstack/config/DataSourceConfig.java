@@ -7,6 +7,7 @@ import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -14,6 +15,7 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -21,11 +23,26 @@ import java.util.Objects;
 @EnableTransactionManagement
 public class DataSourceConfig {
 
+    private static final List<String> USER_TABLES = List.of(
+            "users", "user_profiles", "body_metrics", "refresh_tokens", "goals");
+
+    private static final List<String> WORKOUT_TABLES = List.of(
+            "exercises", "workout_plans", "workout_plan_days", "workout_plan_day_exercises",
+            "workout_templates", "workout_template_exercises", "workout_sessions", "workout_sets",
+            "user_exercise_stats", "weekly_training_rollups", "daily_exercise_rollups");
+
+    private static final List<String> NUTRITION_TABLES = List.of(
+            "foods", "custom_foods", "meals", "meal_foods", "meal_plans");
+
     private Map<String, Object> jpaProperties() {
         Map<String, Object> props = new HashMap<>();
         props.put("hibernate.hbm2ddl.auto", "update");
         props.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
         props.put("hibernate.format_sql", "true");
+        // Entities use pooled sequences, so inserts and updates can go out in JDBC batches
+        props.put("hibernate.jdbc.batch_size", IdSequenceMigrator.ALLOCATION_SIZE);
+        props.put("hibernate.order_inserts", "true");
+        props.put("hibernate.order_updates", "true");
         return props;
     }
 
@@ -45,6 +62,7 @@ public class DataSourceConfig {
     public LocalContainerEntityManagerFactoryBean usersEntityManagerFactory(
             EntityManagerFactoryBuilder builder,
             @Qualifier("usersDataSource") DataSource dataSource) {
+        IdSequenceMigrator.migrate(dataSource, USER_TABLES);
         return builder
                 .dataSource(dataSource)
                 .packages("com.fitstack.user.entity")
@@ -74,6 +92,7 @@ public class DataSourceConfig {
     public LocalContainerEntityManagerFactoryBean workoutsEntityManagerFactory(
             EntityManagerFactoryBuilder builder,
             @Qualifier("workoutsDataSource") DataSource dataSource) {
+        IdSequenceMigrator.migrate(dataSource, WORKOUT_TABLES);
         return builder
                 .dataSource(dataSource)
                 .packages("com.fitstack.workout.entity")
@@ -88,6 +107,15 @@ public class DataSourceConfig {
         return new JpaTransactionManager(Objects.requireNonNull(entityManagerFactory.getObject()));
     }
 
+    /**
+     * Plain JDBC access to the workouts database for bulk writes. Statements
+     * join the surrounding workoutsTransactionManager transaction.
+     */
+    @Bean(name = "workoutsJdbcTemplate")
+    public JdbcTemplate workoutsJdbcTemplate(@Qualifier("workoutsDataSource") DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+
     // =====================================================
     // NUTRITION DATABASE CONFIGURATION
     // =====================================================
@@ -102,6 +130,7 @@ public class DataSourceConfig {
     public LocalContainerEntityManagerFactoryBean nutritionEntityManagerFactory(
             EntityManagerFactoryBuilder builder,
             @Qualifier("nutritionDataSource") DataSource dataSource) {
+        IdSequenceMigrator.migrate(dataSource, NUTRITION_TABLES);
         return builder
                 .dataSource(dataSource)
                 .packages("com.fitstack.nutrition.entity")
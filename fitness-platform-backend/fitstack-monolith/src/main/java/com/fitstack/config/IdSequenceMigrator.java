@@ -0,0 +1,76 @@
+package com.fitstack.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Moves existing tables from IDENTITY ids to the pooled sequences the entities
+ * now use, keeping every existing id.
+ *
+ * Each table keeps its own {@code <table>_id_seq}; only the increment changes
+ * to the entities' allocation size. Hibernate treats each value it draws as the
+ * top of a block of ids, so the next block starts right after the last id the
+ * old identity handed out. Runs before the entity manager factory starts, since
+ * Hibernate refuses to start when a sequence's increment doesn't match. Tables
+ * that don't exist yet are left to hbm2ddl.
+ */
+@Slf4j
+final class IdSequenceMigrator {
+
+    // Must match allocationSize on the entities' @SequenceGenerator
+    static final int ALLOCATION_SIZE = 50;
+
+    private IdSequenceMigrator() {
+    }
+
+    static void migrate(DataSource dataSource, List<String> tables) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        for (String table : tables) {
+            migrateTable(jdbcTemplate, table);
+        }
+    }
+
+    private static void migrateTable(JdbcTemplate jdbcTemplate, String table) {
+        String sequence = table + "_id_seq";
+
+        if (!exists(jdbcTemplate, table)) {
+            return;
+        }
+
+        if (!exists(jdbcTemplate, sequence)) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            long start = (maxId != null ? maxId : 0) + ALLOCATION_SIZE + 1;
+            jdbcTemplate.execute("CREATE SEQUENCE " + sequence + " INCREMENT BY " + ALLOCATION_SIZE
+                    + " START WITH " + start + " OWNED BY " + table + ".id");
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT nextval('" + sequence + "')");
+            log.info("Created {} starting at {}", sequence, start);
+            return;
+        }
+
+        Long increment = jdbcTemplate.queryForObject(
+                "SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = ?",
+                Long.class, sequence);
+        if (increment != null && increment == ALLOCATION_SIZE) {
+            return;
+        }
+
+        String isIdentity = jdbcTemplate.queryForObject(
+                "SELECT is_identity FROM information_schema.columns "
+                        + "WHERE table_schema = current_schema() AND table_name = ? AND column_name = 'id'",
+                String.class, table);
+        if ("YES".equals(isIdentity)) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id SET INCREMENT BY " + ALLOCATION_SIZE);
+        } else {
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + ALLOCATION_SIZE);
+        }
+        log.info("Changed {} increment from {} to {}", sequence, increment, ALLOCATION_SIZE);
+    }
+
+    private static boolean exists(JdbcTemplate jdbcTemplate, String relation) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, relation));
+    }
+}
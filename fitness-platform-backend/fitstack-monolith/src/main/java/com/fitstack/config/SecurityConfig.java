@@ -1,7 +1,11 @@
 package com.fitstack.config;
 
+import com.fitstack.user.filter.ApiThrottleFilter;
 import com.fitstack.user.filter.JwtAuthenticationFilter;
+import com.fitstack.user.util.BCryptCalibrator;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -22,12 +26,27 @@ import org.springframework.web.cors.CorsConfigurationSource;
 @Configuration
 @EnableWebSecurity
 @RequiredArgsConstructor
+@Slf4j
 public class SecurityConfig {
 
         private final JwtAuthenticationFilter jwtAuthenticationFilter;
+        private final ApiThrottleFilter apiThrottleFilter;
         private final UserDetailsService userDetailsService;
         private final CorsConfigurationSource corsConfigurationSource;
 
+        // Fixed BCrypt strength; 0 means calibrate at startup against the target latency
+        @Value("${auth.bcrypt.strength:0}")
+        private int bcryptStrength;
+
+        @Value("${auth.bcrypt.target-ms:250}")
+        private long bcryptTargetMs;
+
+        @Value("${auth.bcrypt.min-strength:10}")
+        private int bcryptMinStrength;
+
+        @Value("${auth.bcrypt.max-strength:14}")
+        private int bcryptMaxStrength;
+
         @Bean
         public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
                 http
@@ -63,7 +82,9 @@ public class SecurityConfig {
                                 .sessionManagement(session -> session
                                                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                                 .authenticationProvider(authenticationProvider())
-                                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                                // Throttle after JWT parsing so buckets can be keyed by userId
+                                .addFilterAfter(apiThrottleFilter, JwtAuthenticationFilter.class);
 
                 return http.build();
         }
@@ -83,6 +104,11 @@ public class SecurityConfig {
 
         @Bean
         public PasswordEncoder passwordEncoder() {
-                return new BCryptPasswordEncoder();
+                int strength = bcryptStrength;
+                if (strength <= 0) {
+                        strength = BCryptCalibrator.calibrate(bcryptTargetMs, bcryptMinStrength, bcryptMaxStrength);
+                        log.info("BCrypt strength calibrated to {} (target {} ms)", strength, bcryptTargetMs);
+                }
+                return new BCryptPasswordEncoder(strength);
         }
 }
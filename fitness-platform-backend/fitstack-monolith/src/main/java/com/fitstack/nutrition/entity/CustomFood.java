@@ -22,7 +22,8 @@ import java.time.LocalDateTime;
 public class CustomFood {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "custom_foods_id_seq")
+    @SequenceGenerator(name = "custom_foods_id_seq", sequenceName = "custom_foods_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
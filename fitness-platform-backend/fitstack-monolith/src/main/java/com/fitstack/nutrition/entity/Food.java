@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class Food {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "foods_id_seq")
+    @SequenceGenerator(name = "foods_id_seq", sequenceName = "foods_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "fdc_id")
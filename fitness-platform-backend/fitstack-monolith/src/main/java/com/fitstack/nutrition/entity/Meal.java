@@ -20,7 +20,8 @@ import java.util.List;
 public class Meal {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meals_id_seq")
+    @SequenceGenerator(name = "meals_id_seq", sequenceName = "meals_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -17,7 +17,8 @@ import java.math.BigDecimal;
 public class MealFood {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meal_foods_id_seq")
+    @SequenceGenerator(name = "meal_foods_id_seq", sequenceName = "meal_foods_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
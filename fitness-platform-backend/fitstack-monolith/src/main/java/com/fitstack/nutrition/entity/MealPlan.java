@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class MealPlan {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meal_plans_id_seq")
+    @SequenceGenerator(name = "meal_plans_id_seq", sequenceName = "meal_plans_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -0,0 +1,14 @@
+package com.fitstack.user.config;
+
+import java.security.PublicKey;
+import java.util.Map;
+
+/**
+ * Source of the public keys Google signs ID tokens with, keyed by key ID ({@code kid}).
+ * The default implementation reads Google's JWKS document; tests can plug in
+ * a local key set instead.
+ */
+public interface GoogleKeySource {
+
+    Map<String, PublicKey> loadKeys();
+}
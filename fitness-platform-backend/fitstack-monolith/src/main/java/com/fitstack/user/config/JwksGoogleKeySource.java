@@ -0,0 +1,77 @@
+package com.fitstack.user.config;
+
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads Google's signing keys from a JWKS document.
+ *
+ * {@code google.jwks-uri} is fetched over HTTP when it is an http(s) URL and read
+ * as a Spring resource otherwise, so {@code classpath:} or {@code file:} key sets
+ * can stand in for Google when running offline.
+ */
+@Component
+@Slf4j
+public class JwksGoogleKeySource implements GoogleKeySource {
+
+    private final ResourceLoader resourceLoader;
+    private final WebClient webClient;
+    private final String jwksUri;
+    private final Duration timeout;
+
+    public JwksGoogleKeySource(
+            ResourceLoader resourceLoader,
+            @Value("${google.jwks-uri:https://www.googleapis.com/oauth2/v3/certs}") String jwksUri,
+            @Value("${google.jwks-timeout-ms:5000}") long timeoutMs) {
+        this.resourceLoader = resourceLoader;
+        this.webClient = WebClient.create();
+        this.jwksUri = jwksUri;
+        this.timeout = Duration.ofMillis(timeoutMs);
+    }
+
+    @Override
+    public Map<String, PublicKey> loadKeys() {
+        JwkSet jwkSet = Jwks.setParser().build().parse(readDocument());
+
+        Map<String, PublicKey> keys = new HashMap<>();
+        for (Jwk<?> jwk : jwkSet.getKeys()) {
+            Key key = jwk.toKey();
+            if (jwk.getId() != null && key instanceof PublicKey publicKey) {
+                keys.put(jwk.getId(), publicKey);
+            }
+        }
+        return keys;
+    }
+
+    private String readDocument() {
+        if (jwksUri.startsWith("http://") || jwksUri.startsWith("https://")) {
+            return webClient.get()
+                    .uri(jwksUri)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .block(timeout);
+        }
+
+        try (InputStream in = resourceLoader.getResource(jwksUri).getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read JWKS from " + jwksUri, e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.fitstack.user.config;
+
+import java.security.Principal;
+
+/**
+ * Lightweight Spring Security principal built straight from verified JWT claims.
+ * Used in stateless mode so authenticating a request needs no users-DB lookup.
+ */
+public record JwtUserPrincipal(Long userId, String email) implements Principal {
+
+    public static JwtUserPrincipal of(VerifiedToken token) {
+        return new JwtUserPrincipal(token.userId(), token.email());
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
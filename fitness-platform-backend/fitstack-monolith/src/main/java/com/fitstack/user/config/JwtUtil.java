@@ -1,6 +1,7 @@
 package com.fitstack.user.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -30,6 +31,10 @@ public class JwtUtil {
     @Value("${jwt.expiration.remember-me:2592000000}")
     private Long rememberMeExpiration; // 30 days default
 
+    // Built once at startup - both are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
     @PostConstruct
     public void validateSecret() {
         if (secret == null || secret.length() < 32) {
@@ -38,14 +43,13 @@ public class JwtUtil {
         if (secret.contains("your-256-bit-secret") || secret.contains("changeme") || secret.equals("secret")) {
             log.warn("⚠️  WARNING: Using default/weak JWT secret! Set JWT_SECRET environment variable for production!");
         }
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
         log.info("✅ JWT configuration validated");
     }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     public String generateToken(String email, Long userId) {
         return generateToken(email, userId, false);
     }
@@ -64,13 +68,24 @@ public class JwtUtil {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + tokenExpiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Parse and verify the token signature exactly once.
+     * Throws a JwtException if the token is malformed, tampered with or expired.
+     */
+    public VerifiedToken verify(String token) {
+        return VerifiedToken.from(extractAllClaims(token));
+    }
+
     public Boolean validateToken(String token, String email) {
-        final String tokenEmail = extractEmail(token);
-        return (tokenEmail.equals(email) && !isTokenExpired(token));
+        return validateToken(verify(token), email);
+    }
+
+    public boolean validateToken(VerifiedToken token, String email) {
+        return token.email() != null && token.email().equals(email) && !token.isExpired();
     }
 
     public String extractEmail(String token) {
@@ -99,15 +114,7 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
 
     public Long getExpiration() {
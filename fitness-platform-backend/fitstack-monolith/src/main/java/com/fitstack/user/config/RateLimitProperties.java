@@ -0,0 +1,40 @@
+package com.fitstack.user.config;
+
+import com.fitstack.user.service.RateLimitService.EndpointType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-endpoint rate limit policies, bound from rate-limit.policies.* in application.properties.
+ * Defaults below apply to any endpoint type not overridden in configuration.
+ */
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+@Data
+public class RateLimitProperties {
+
+    private Map<EndpointType, Policy> policies = new EnumMap<>(Map.of(
+            EndpointType.LOGIN, new Policy(5, 30 * 60, 15 * 60), // 5 attempts, 15 min lockout
+            EndpointType.REGISTER, new Policy(3, 2 * 60 * 60, 60 * 60), // 3 attempts, 1 hour lockout
+            EndpointType.REFRESH, new Policy(10, 10 * 60, 5 * 60), // 10 attempts, 5 min lockout
+            EndpointType.GENERAL, new Policy(100, 2 * 60, 60))); // 100 attempts, 1 min lockout
+
+    public Policy getPolicy(EndpointType type) {
+        return policies.get(type);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Policy {
+        private int maxAttempts;
+        private long windowSeconds; // Sliding window over which attempts are counted
+        private long lockoutSeconds;
+    }
+}
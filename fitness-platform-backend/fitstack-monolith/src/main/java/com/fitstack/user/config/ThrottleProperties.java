@@ -0,0 +1,44 @@
+package com.fitstack.user.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Global API throttling settings, bound from throttle.* in application.properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "throttle")
+@Data
+public class ThrottleProperties {
+
+    private boolean enabled = true;
+
+    // Authenticated callers, keyed by userId from the JWT
+    private long userCapacity = 120;
+    private double userRefillPerSecond = 2;
+
+    // Anonymous callers, keyed by client IP
+    private long ipCapacity = 60;
+    private double ipRefillPerSecond = 1;
+
+    // Cost of a request when no route-specific cost matches
+    private int defaultCost = 1;
+
+    // Ant-style path pattern -> token cost (first match wins; 0 disables throttling for the route)
+    private Map<String, Integer> routeCosts = new LinkedHashMap<>();
+
+    private List<String> excludedPaths = List.of("/actuator/health", "/ws/**");
+
+    // Idle buckets are dropped after this long
+    private long bucketIdleSeconds = 600;
+    private long maxBuckets = 100_000;
+
+    // Cross-node reconciliation through Redis
+    private long syncIntervalMs = 5000;
+    private long syncWindowSeconds = 60;
+}
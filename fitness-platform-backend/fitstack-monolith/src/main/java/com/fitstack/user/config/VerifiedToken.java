@@ -0,0 +1,26 @@
+package com.fitstack.user.config;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+
+/**
+ * Claims of a JWT whose signature has already been checked.
+ * Produced once per request by {@link JwtUtil#verify(String)} so callers
+ * never have to re-parse the raw token string.
+ */
+public record VerifiedToken(String email, Long userId, String jti, Instant issuedAt, Instant expiresAt) {
+
+    static VerifiedToken from(Claims claims) {
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get("userId", Long.class),
+                claims.get("jti", String.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+    }
+
+    public boolean isExpired() {
+        return expiresAt != null && expiresAt.isBefore(Instant.now());
+    }
+}
@@ -13,10 +13,10 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class GoogleAuthRequest {
 
-    // Access token from Google OAuth (used to verify with Google's API)
+    // Google ID token (verified locally) or access token (verified via Google's tokeninfo API)
     private String idToken;
 
-    // User info from frontend (fetched from Google's userinfo endpoint)
+    // User info from frontend (read from the ID token, or Google's userinfo endpoint for access tokens)
     @NotBlank(message = "Email is required")
     @Email(message = "Invalid email format")
     private String email;
@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
 public class BodyMetric {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "body_metrics_id_seq")
+    @SequenceGenerator(name = "body_metrics_id_seq", sequenceName = "body_metrics_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -21,7 +21,8 @@ import java.time.LocalDateTime;
 public class Goal {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "goals_id_seq")
+    @SequenceGenerator(name = "goals_id_seq", sequenceName = "goals_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,56 @@
+package com.fitstack.user.filter;
+
+import com.fitstack.user.service.ApiThrottleService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Throttles all API traffic with in-process token buckets.
+ * Runs after {@link JwtAuthenticationFilter} so authenticated callers are
+ * limited by userId and anonymous callers by the connection's remote address.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApiThrottleFilter extends OncePerRequestFilter {
+
+    private final ApiThrottleService throttleService;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !throttleService.isEnabled() || "OPTIONS".equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        int cost = throttleService.costFor(request.getRequestURI());
+        Long userId = (Long) request.getAttribute("userId");
+
+        // Forwarded headers are client-controlled; the servlet container only applies
+        // them to the remote address when they come from a trusted proxy
+        String clientIp = request.getRemoteAddr();
+        long retryAfter = throttleService.tryAcquire(userId, clientIp, cost);
+        if (retryAfter > 0) {
+            logger.debug("Throttled request to " + request.getRequestURI()
+                    + (userId != null ? " for user " + userId : " from " + clientIp));
+            response.setStatus(429);
+            response.setHeader("Retry-After", String.valueOf(retryAfter));
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\": \"Too many requests\"}");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -1,6 +1,9 @@
 package com.fitstack.user.filter;
 
+import com.fitstack.user.config.JwtUserPrincipal;
 import com.fitstack.user.config.JwtUtil;
+import com.fitstack.user.config.VerifiedToken;
+import com.fitstack.user.service.CustomUserDetailsService;
 import com.fitstack.user.service.TokenBlacklistService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -8,11 +11,11 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -25,9 +28,13 @@ import java.util.*;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final CustomUserDetailsService userDetailsService;
     private final TokenBlacklistService tokenBlacklistService;
 
+    // When true the principal is built from verified claims with no users-DB lookup
+    @Value("${auth.stateless-principal:true}")
+    private boolean statelessPrincipal;
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -36,7 +43,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -46,8 +52,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
+            // Verify the signature once and work off the parsed claims from here on
+            VerifiedToken token = jwtUtil.verify(jwt);
+
             // Check if token is blacklisted
-            String jti = jwtUtil.extractJti(jwt);
+            String jti = token.jti();
             if (jti != null && tokenBlacklistService.isBlacklisted(jti)) {
                 logger.warn("Rejected blacklisted token with JTI: " + jti);
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -55,21 +64,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 return;
             }
 
-            userEmail = jwtUtil.extractEmail(jwt);
+            String userEmail = token.email();
 
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                UsernamePasswordAuthenticationToken authToken = buildAuthentication(token);
 
-                if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities());
+                if (authToken != null) {
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
 
                     // Extract user ID from JWT
-                    Long userId = jwtUtil.extractUserId(jwt);
+                    Long userId = token.userId();
 
                     // Set user ID as request attribute for easy access
                     request.setAttribute("userId", userId);
@@ -87,6 +92,31 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Build the authentication for a verified token, or null if it should be rejected.
+     * Stateless mode trusts the signed claims; otherwise the (cached) user record is consulted.
+     */
+    private UsernamePasswordAuthenticationToken buildAuthentication(VerifiedToken token) {
+        if (statelessPrincipal) {
+            if (token.userId() == null || token.isExpired()) {
+                return null;
+            }
+            return new UsernamePasswordAuthenticationToken(
+                    JwtUserPrincipal.of(token),
+                    null,
+                    Collections.emptyList());
+        }
+
+        UserDetails userDetails = userDetailsService.loadPrincipal(token.email());
+        if (!jwtUtil.validateToken(token, userDetails.getUsername())) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities());
+    }
+
     /**
      * Request wrapper that adds X-User-Id header
      */
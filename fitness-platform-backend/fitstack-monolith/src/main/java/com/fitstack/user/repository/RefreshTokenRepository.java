@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Optional;
 
 @Repository
@@ -28,4 +29,26 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
 
     @Transactional("usersTransactionManager")
     void deleteByUserId(Long userId);
+
+    @Modifying
+    @Transactional("usersTransactionManager")
+    @Query("DELETE FROM RefreshToken r WHERE r.userId = :userId")
+    int deleteAllByUserId(Long userId);
+
+    /**
+     * Swap a live token for a new one in place, returning the owner's ID if the
+     * old token was live. One statement, so a token can only be rotated once.
+     */
+    @Transactional("usersTransactionManager")
+    @Query(value = "UPDATE refresh_tokens SET token = :newToken, expiry_date = :expiryDate, created_at = now() " +
+            "WHERE token = :token AND revoked = false AND expiry_date > now() " +
+            "RETURNING user_id", nativeQuery = true)
+    Optional<Long> rotateToken(String token, String newToken, Instant expiryDate);
+
+    @Modifying
+    @Transactional("usersTransactionManager")
+    @Query(value = "DELETE FROM refresh_tokens WHERE id IN (" +
+            "SELECT id FROM refresh_tokens WHERE revoked = true OR expiry_date < now() LIMIT :batchSize)",
+            nativeQuery = true)
+    int purgeBatch(int batchSize);
 }
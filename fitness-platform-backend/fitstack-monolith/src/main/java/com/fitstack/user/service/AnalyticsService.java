@@ -1,5 +1,6 @@
 package com.fitstack.user.service;
 
+import com.fitstack.config.AnalyticsCache;
 import com.fitstack.user.dto.GoalProgressDto;
 import com.fitstack.user.dto.MetricsStatsDto;
 import com.fitstack.user.dto.WeightTrendDto;
@@ -7,6 +8,7 @@ import com.fitstack.user.entity.BodyMetric;
 import com.fitstack.user.entity.Goal;
 import com.fitstack.user.repository.BodyMetricRepository;
 import com.fitstack.user.repository.GoalRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -24,13 +26,29 @@ import java.util.Optional;
 @Slf4j
 public class AnalyticsService {
 
+    private static final TypeReference<List<WeightTrendDto>> WEIGHT_TREND_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<List<GoalProgressDto>> GOAL_PROGRESS_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<MetricsStatsDto> METRICS_STATS_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<LocalDate> PREDICTION_TYPE = new TypeReference<>() {
+    };
+
     private final BodyMetricRepository bodyMetricRepository;
     private final GoalRepository goalRepository;
+    private final AnalyticsCache analyticsCache;
 
     /**
      * Get weight trend data with moving average calculation
      */
     public List<WeightTrendDto> getWeightTrend(Long userId, LocalDate startDate, LocalDate endDate) {
+        return analyticsCache.get(AnalyticsCache.Scope.BODY, userId, "weight-trend",
+                startDate + ".." + endDate, WEIGHT_TREND_TYPE,
+                () -> computeWeightTrend(userId, startDate, endDate));
+    }
+
+    private List<WeightTrendDto> computeWeightTrend(Long userId, LocalDate startDate, LocalDate endDate) {
         List<BodyMetric> metrics = bodyMetricRepository.findByUserIdAndDateRange(userId, startDate, endDate);
 
         if (metrics.isEmpty()) {
@@ -76,6 +94,12 @@ public class AnalyticsService {
      * Calculate progress toward active goals
      */
     public List<GoalProgressDto> calculateGoalProgress(Long userId) {
+        return analyticsCache.get(AnalyticsCache.Scope.BODY, userId, "goal-progress",
+                "", GOAL_PROGRESS_TYPE,
+                () -> computeGoalProgress(userId));
+    }
+
+    private List<GoalProgressDto> computeGoalProgress(Long userId) {
         List<Goal> activeGoals = goalRepository.findByUserIdAndStatusOrderByCreatedAtDesc(
                 userId, Goal.GoalStatus.ACTIVE);
 
@@ -113,6 +137,12 @@ public class AnalyticsService {
      * Get aggregate statistics for a period
      */
     public MetricsStatsDto getMetricsStats(Long userId, String period) {
+        return analyticsCache.get(AnalyticsCache.Scope.BODY, userId, "stats",
+                period, METRICS_STATS_TYPE,
+                () -> computeMetricsStats(userId, period));
+    }
+
+    private MetricsStatsDto computeMetricsStats(Long userId, String period) {
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = calculateStartDate(period);
 
@@ -175,6 +205,12 @@ public class AnalyticsService {
      * Predict goal completion using simple linear regression
      */
     public LocalDate predictGoalCompletion(Long userId, Long goalId) {
+        return analyticsCache.get(AnalyticsCache.Scope.BODY, userId, "predict",
+                String.valueOf(goalId), PREDICTION_TYPE,
+                () -> computeGoalCompletion(userId, goalId));
+    }
+
+    private LocalDate computeGoalCompletion(Long userId, Long goalId) {
         Optional<Goal> goalOpt = goalRepository.findByIdAndUserId(goalId, userId);
         if (goalOpt.isEmpty()) {
             return null;
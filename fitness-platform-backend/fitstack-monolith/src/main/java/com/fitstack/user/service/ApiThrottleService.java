@@ -0,0 +1,145 @@
+package com.fitstack.user.service;
+
+import com.fitstack.user.config.ThrottleProperties;
+import com.fitstack.user.util.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process API throttling with per-user and per-IP token buckets.
+ *
+ * Every request is decided locally. A background task reports each bucket's
+ * local consumption to Redis in one pipelined batch and drains what other
+ * nodes consumed, so limits hold across the cluster without a Redis call per request.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ApiThrottleService {
+
+    private static final String THROTTLE_PREFIX = "throttle:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ThrottleProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private Cache<String, TokenBucket> buckets;
+
+    @PostConstruct
+    public void init() {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(Duration.ofSeconds(properties.getBucketIdleSeconds()))
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Token cost of a request path (0 means the path is not throttled)
+     */
+    public int costFor(String path) {
+        for (String excluded : properties.getExcludedPaths()) {
+            if (pathMatcher.match(excluded, path)) {
+                return 0;
+            }
+        }
+        for (Map.Entry<String, Integer> route : properties.getRouteCosts().entrySet()) {
+            if (pathMatcher.match(route.getKey(), path)) {
+                return route.getValue();
+            }
+        }
+        return properties.getDefaultCost();
+    }
+
+    /**
+     * Try to consume tokens for a caller
+     *
+     * @param userId    Authenticated user ID, or null for anonymous callers
+     * @param ipAddress Client IP, used when there is no user
+     * @param cost      Token cost of the request
+     * @return 0 if allowed, otherwise seconds the caller should wait
+     */
+    public long tryAcquire(Long userId, String ipAddress, int cost) {
+        if (cost <= 0) {
+            return 0;
+        }
+        TokenBucket bucket = userId != null
+                ? buckets.get("user:" + userId, k -> new TokenBucket(
+                        properties.getUserCapacity(), properties.getUserRefillPerSecond()))
+                : buckets.get("ip:" + ipAddress, k -> new TokenBucket(
+                        properties.getIpCapacity(), properties.getIpRefillPerSecond()));
+        return bucket.tryConsume(cost);
+    }
+
+    /**
+     * Push local consumption to Redis and pull in what other nodes consumed
+     */
+    @Scheduled(fixedDelayString = "${throttle.sync-interval-ms:5000}")
+    public void reconcile() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>();
+        List<TokenBucket> pending = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        buckets.asMap().forEach((key, bucket) -> {
+            long delta = bucket.takeUnsynced();
+            if (delta > 0) {
+                keys.add(key);
+                pending.add(bucket);
+                deltas.add(delta);
+            }
+        });
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        long windowSeconds = properties.getSyncWindowSeconds();
+        long window = System.currentTimeMillis() / (windowSeconds * 1000);
+
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < keys.size(); i++) {
+                    byte[] redisKey = redisKey(keys.get(i), window);
+                    connection.stringCommands().incrBy(redisKey, deltas.get(i));
+                    connection.keyCommands().expire(redisKey, windowSeconds * 2);
+                }
+                return null;
+            });
+
+            // Results alternate INCRBY total / EXPIRE flag
+            for (int i = 0; i < pending.size(); i++) {
+                Object total = results.get(i * 2);
+                if (total instanceof Long clusterTotal) {
+                    pending.get(i).reconcile(window, clusterTotal, deltas.get(i));
+                }
+            }
+        } catch (DataAccessException e) {
+            // Local limits still apply; the cluster view catches up on the next sync
+            log.warn("Throttle reconciliation with Redis failed: {}", e.getMessage());
+        }
+    }
+
+    private static byte[] redisKey(String bucketKey, long window) {
+        return (THROTTLE_PREFIX + bucketKey + ":" + window).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -2,6 +2,8 @@ package com.fitstack.user.service;
 
 import java.math.BigDecimal;
 
+import com.fitstack.config.AnalyticsCache;
+import com.fitstack.config.AnalyticsDataChangedEvent;
 import com.fitstack.user.dto.BodyMetricDto;
 import com.fitstack.user.dto.CreateMetricRequest;
 import com.fitstack.user.entity.BodyMetric;
@@ -12,6 +14,7 @@ import com.fitstack.config.exception.NotFoundException;
 import com.fitstack.user.repository.BodyMetricRepository;
 import com.fitstack.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -27,6 +30,7 @@ public class BodyMetricService {
 
     private final BodyMetricRepository bodyMetricRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional("usersTransactionManager")
     public BodyMetricDto createMetric(Long userId, CreateMetricRequest request) {
@@ -69,6 +73,7 @@ public class BodyMetricService {
                 .build();
 
         metric = bodyMetricRepository.save(metric);
+        publishChange(userId);
 
         return toDto(metric);
     }
@@ -108,6 +113,12 @@ public class BodyMetricService {
         }
 
         bodyMetricRepository.delete(metric);
+        publishChange(userId);
+    }
+
+    // Metrics feed weight trend, stats, goal progress and predictions
+    private void publishChange(Long userId) {
+        eventPublisher.publishEvent(new AnalyticsDataChangedEvent(userId, AnalyticsCache.Scope.BODY));
     }
 
     private BodyMetricDto toDto(BodyMetric metric) {
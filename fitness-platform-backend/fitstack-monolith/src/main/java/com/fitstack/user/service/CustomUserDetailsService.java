@@ -2,12 +2,17 @@ package com.fitstack.user.service;
 
 import com.fitstack.user.entity.User;
 import com.fitstack.user.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.ArrayList;
 
 @Service
@@ -16,6 +21,23 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    @Value("${auth.principal-cache.max-size:10000}")
+    private long principalCacheMaxSize;
+
+    @Value("${auth.principal-cache.ttl-seconds:300}")
+    private long principalCacheTtlSeconds;
+
+    // Credential-free principals for request authentication, keyed by email
+    private Cache<String, UserDetails> principalCache;
+
+    @PostConstruct
+    public void initPrincipalCache() {
+        this.principalCache = Caffeine.newBuilder()
+                .maximumSize(principalCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(principalCacheTtlSeconds))
+                .build();
+    }
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
@@ -30,4 +52,29 @@ public class CustomUserDetailsService implements UserDetailsService {
                 password,
                 new ArrayList<>());
     }
+
+    /**
+     * Load the principal used to authenticate a JWT request.
+     * Served from a bounded TTL cache so repeat requests skip the users DB;
+     * the password hash is never cached.
+     */
+    public UserDetails loadPrincipal(String email) throws UsernameNotFoundException {
+        return principalCache.get(email, key -> {
+            User user = userRepository.findByEmail(key)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + key));
+            return new org.springframework.security.core.userdetails.User(
+                    user.getEmail(),
+                    "",
+                    new ArrayList<>());
+        });
+    }
+
+    /**
+     * Drop a cached principal (logout, account deletion)
+     */
+    public void evictPrincipal(String email) {
+        if (email != null) {
+            principalCache.invalidate(email);
+        }
+    }
 }
@@ -1,5 +1,7 @@
 package com.fitstack.user.service;
 
+import com.fitstack.config.AnalyticsCache;
+import com.fitstack.config.AnalyticsDataChangedEvent;
 import com.fitstack.user.dto.CreateGoalRequest;
 import com.fitstack.user.dto.GoalDto;
 import com.fitstack.user.entity.Goal;
@@ -8,6 +10,7 @@ import com.fitstack.config.exception.NotFoundException;
 import com.fitstack.user.repository.GoalRepository;
 import com.fitstack.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +23,7 @@ public class GoalService {
 
     private final GoalRepository goalRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional("usersTransactionManager")
     public GoalDto createGoal(Long userId, CreateGoalRequest request) {
@@ -35,6 +39,7 @@ public class GoalService {
                 .build();
 
         goal = goalRepository.save(goal);
+        publishChange(userId);
 
         return toDto(goal);
     }
@@ -66,6 +71,7 @@ public class GoalService {
 
         goal.setStatus(status);
         goal = goalRepository.save(goal);
+        publishChange(userId);
 
         return toDto(goal);
     }
@@ -76,6 +82,12 @@ public class GoalService {
                 .orElseThrow(() -> new NotFoundException("Goal not found"));
 
         goalRepository.delete(goal);
+        publishChange(userId);
+    }
+
+    // Goals feed goal progress and predictions
+    private void publishChange(Long userId) {
+        eventPublisher.publishEvent(new AnalyticsDataChangedEvent(userId, AnalyticsCache.Scope.BODY));
     }
 
     private GoalDto toDto(Goal goal) {
@@ -0,0 +1,143 @@
+package com.fitstack.user.service;
+
+import com.fitstack.config.exception.BadRequestException;
+import com.fitstack.user.config.GoogleKeySource;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.Key;
+import java.security.PublicKey;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Verifies Google ID tokens locally against Google's signing keys.
+ *
+ * Keys are cached in memory and refreshed on a schedule, plus on demand when a
+ * token names a key we don't have yet (Google rotates keys roughly daily).
+ * On-demand refreshes are throttled so forged {@code kid}s can't hammer Google.
+ */
+@Service
+@Slf4j
+public class GoogleIdTokenVerifier {
+
+    private static final Set<String> GOOGLE_ISSUERS = Set.of("accounts.google.com", "https://accounts.google.com");
+
+    private final GoogleKeySource keySource;
+    private final String googleClientId;
+    private final long minRefreshIntervalMs;
+    private final JwtParser parser;
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile long lastRefreshMillis = 0;
+
+    public GoogleIdTokenVerifier(
+            GoogleKeySource keySource,
+            @Value("${google.client-id}") String googleClientId,
+            @Value("${google.jwks-min-refresh-interval-ms:60000}") long minRefreshIntervalMs) {
+        this.keySource = keySource;
+        this.googleClientId = googleClientId;
+        this.minRefreshIntervalMs = minRefreshIntervalMs;
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(ProtectedHeader header) {
+                        return findKey(header.getKeyId());
+                    }
+                })
+                .requireAudience(googleClientId)
+                .clockSkewSeconds(30)
+                .build();
+    }
+
+    /**
+     * Verified identity from a Google ID token
+     */
+    public record GoogleIdentity(String subject, String email, boolean emailVerified) {
+    }
+
+    @PostConstruct
+    public void init() {
+        refreshKeys();
+    }
+
+    /**
+     * Verify signature, issuer, audience and expiry of a Google ID token
+     *
+     * @throws BadRequestException if the token is not a valid ID token for this client
+     */
+    public GoogleIdentity verify(String idToken) {
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(idToken).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn("SECURITY: Google ID token rejected: {}", e.getMessage());
+            throw new BadRequestException("Invalid Google token");
+        }
+
+        if (!GOOGLE_ISSUERS.contains(claims.getIssuer())) {
+            log.warn("SECURITY: Google ID token has unexpected issuer: {}", claims.getIssuer());
+            throw new BadRequestException("Invalid Google token - issuer mismatch");
+        }
+
+        return new GoogleIdentity(
+                claims.getSubject(),
+                claims.get("email", String.class),
+                Boolean.TRUE.equals(claims.get("email_verified", Boolean.class)));
+    }
+
+    /**
+     * Reload the key set. Runs at startup and then periodically.
+     */
+    @Scheduled(initialDelayString = "${google.jwks-refresh-interval-ms:3600000}",
+            fixedDelayString = "${google.jwks-refresh-interval-ms:3600000}")
+    public synchronized void refreshKeys() {
+        lastRefreshMillis = System.currentTimeMillis();
+        try {
+            Map<String, PublicKey> loaded = keySource.loadKeys();
+            if (loaded.isEmpty()) {
+                log.warn("Google key source returned no keys - keeping {} cached keys", keys.size());
+                return;
+            }
+            keys = Map.copyOf(loaded);
+            log.debug("Loaded {} Google signing keys", loaded.size());
+        } catch (RuntimeException e) {
+            // Keep serving from the previous key set; unknown kids will retry later
+            log.warn("Could not refresh Google signing keys: {}", e.getMessage());
+        }
+    }
+
+    private synchronized PublicKey refreshForUnknownKey(String keyId) {
+        // Re-check under the lock: a concurrent caller may have just refreshed
+        PublicKey key = keys.get(keyId);
+        if (key == null && System.currentTimeMillis() - lastRefreshMillis >= minRefreshIntervalMs) {
+            refreshKeys();
+            key = keys.get(keyId);
+        }
+        return key;
+    }
+
+    private Key findKey(String keyId) {
+        if (keyId == null) {
+            throw new JwtException("Google ID token has no key ID");
+        }
+
+        PublicKey key = keys.get(keyId);
+        if (key == null) {
+            key = refreshForUnknownKey(keyId);
+        }
+        if (key == null) {
+            throw new JwtException("Unknown Google signing key: " + keyId);
+        }
+        return key;
+    }
+}
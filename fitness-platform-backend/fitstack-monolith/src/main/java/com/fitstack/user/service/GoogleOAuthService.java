@@ -4,10 +4,8 @@ import com.fitstack.config.exception.BadRequestException;
 import com.fitstack.user.config.JwtUtil;
 import com.fitstack.user.dto.AuthResponse;
 import com.fitstack.user.dto.GoogleAuthRequest;
-import com.fitstack.user.entity.RefreshToken;
 import com.fitstack.user.entity.User;
 import com.fitstack.user.entity.UserProfile;
-import com.fitstack.user.repository.RefreshTokenRepository;
 import com.fitstack.user.repository.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,7 +13,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.client.WebClient;
 
-import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
 
@@ -24,22 +21,29 @@ import java.util.Optional;
 public class GoogleOAuthService {
 
     private final UserRepository userRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenStore refreshTokenStore;
     private final JwtUtil jwtUtil;
+    private final GoogleIdTokenVerifier idTokenVerifier;
     private final WebClient webClient;
     private final String googleClientId;
 
     @Value("${jwt.refresh-expiration:604800000}")
     private Long refreshTokenExpiration;
 
+    // Opaque access tokens can only be checked remotely; ID tokens are always verified locally
+    @Value("${google.tokeninfo-fallback:true}")
+    private boolean tokeninfoFallback;
+
     public GoogleOAuthService(
             UserRepository userRepository,
-            RefreshTokenRepository refreshTokenRepository,
+            RefreshTokenStore refreshTokenStore,
             JwtUtil jwtUtil,
+            GoogleIdTokenVerifier idTokenVerifier,
             @Value("${google.client-id}") String googleClientId) {
         this.userRepository = userRepository;
-        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshTokenStore = refreshTokenStore;
         this.jwtUtil = jwtUtil;
+        this.idTokenVerifier = idTokenVerifier;
         this.googleClientId = googleClientId;
         this.webClient = WebClient.builder()
                 .baseUrl("https://www.googleapis.com")
@@ -51,8 +55,7 @@ public class GoogleOAuthService {
 
     @Transactional("usersTransactionManager")
     public AuthResponse authenticateWithGoogle(GoogleAuthRequest request) {
-        // Verify the access token with Google's tokeninfo endpoint
-        verifyAccessToken(request.getIdToken(), request.getEmail());
+        verifyGoogleToken(request);
 
         String googleId = request.getGoogleId();
         String email = request.getEmail();
@@ -66,11 +69,52 @@ public class GoogleOAuthService {
 
         // Generate tokens
         String token = jwtUtil.generateToken(user.getEmail(), user.getId());
-        RefreshToken refreshToken = createRefreshToken(user.getId());
+        String refreshToken = refreshTokenStore.issue(user.getId());
 
         log.info("AUTH: Google OAuth login successful - User: {}", user.getId());
 
-        return buildAuthResponse(user, token, refreshToken.getToken());
+        return buildAuthResponse(user, token, refreshToken);
+    }
+
+    private void verifyGoogleToken(GoogleAuthRequest request) {
+        String token = request.getIdToken();
+        if (token == null || token.isBlank()) {
+            throw new BadRequestException("Google token is required");
+        }
+
+        if (isJwt(token)) {
+            // ID token - verify locally against cached Google keys, no round trip
+            verifyIdToken(token, request.getEmail(), request.getGoogleId());
+        } else if (tokeninfoFallback) {
+            // Opaque access token - verify with Google's tokeninfo endpoint
+            verifyAccessToken(token, request.getEmail());
+        } else {
+            throw new BadRequestException("A Google ID token is required");
+        }
+    }
+
+    private void verifyIdToken(String idToken, String expectedEmail, String expectedGoogleId) {
+        GoogleIdTokenVerifier.GoogleIdentity identity = idTokenVerifier.verify(idToken);
+
+        if (identity.email() == null || !identity.email().equalsIgnoreCase(expectedEmail)) {
+            log.warn("SECURITY: Google ID token email mismatch. Expected: {}, Got: {}", expectedEmail, identity.email());
+            throw new BadRequestException("Invalid Google token - email mismatch");
+        }
+        if (!identity.emailVerified()) {
+            log.warn("SECURITY: Google ID token email not verified: {}", expectedEmail);
+            throw new BadRequestException("Google account email is not verified");
+        }
+        if (expectedGoogleId != null && !expectedGoogleId.equals(identity.subject())) {
+            log.warn("SECURITY: Google ID token subject mismatch for email: {}", expectedEmail);
+            throw new BadRequestException("Invalid Google token - account mismatch");
+        }
+
+        log.debug("Google ID token verified locally for email: {}", expectedEmail);
+    }
+
+    private static boolean isJwt(String token) {
+        int firstDot = token.indexOf('.');
+        return firstDot > 0 && token.indexOf('.', firstDot + 1) > firstDot + 1;
     }
 
     @SuppressWarnings("unchecked")
@@ -165,19 +209,6 @@ public class GoogleOAuthService {
         return userRepository.save(savedUser);
     }
 
-    private RefreshToken createRefreshToken(Long userId) {
-        // Invalidate existing refresh tokens for this user
-        refreshTokenRepository.deleteByUserId(userId);
-
-        RefreshToken refreshToken = RefreshToken.builder()
-                .userId(userId)
-                .token(java.util.UUID.randomUUID().toString())
-                .expiryDate(Instant.now().plusMillis(refreshTokenExpiration))
-                .build();
-
-        return refreshTokenRepository.save(refreshToken);
-    }
-
     private AuthResponse buildAuthResponse(User user, String token, String refreshTokenStr) {
         return AuthResponse.builder()
                 .token(token)
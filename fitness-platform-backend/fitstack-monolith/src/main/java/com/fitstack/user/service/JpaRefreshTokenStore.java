@@ -0,0 +1,89 @@
+package com.fitstack.user.service;
+
+import com.fitstack.user.entity.RefreshToken;
+import com.fitstack.user.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Refresh tokens in the users database.
+ *
+ * Rotation rewrites the user's row in place with a single UPDATE ... RETURNING,
+ * so refreshes no longer add rows, and revocation deletes rather than flags.
+ * Expired rows (and revoked rows from before this change) are removed by a
+ * scheduled purge in small batches.
+ */
+@Service
+@ConditionalOnProperty(name = "auth.refresh-token.store", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${jwt.refresh-expiration:604800000}")
+    private Long refreshTokenExpiration;
+
+    @Value("${auth.refresh-token.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    @Override
+    @Transactional("usersTransactionManager")
+    public String issue(Long userId) {
+        refreshTokenRepository.deleteAllByUserId(userId);
+
+        RefreshToken refreshToken = RefreshToken.builder()
+                .token(UUID.randomUUID().toString())
+                .userId(userId)
+                .expiryDate(Instant.now().plusMillis(refreshTokenExpiration))
+                .revoked(false)
+                .build();
+
+        return refreshTokenRepository.save(refreshToken).getToken();
+    }
+
+    @Override
+    public Optional<Rotation> rotate(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+
+        String newToken = UUID.randomUUID().toString();
+        return refreshTokenRepository
+                .rotateToken(token, newToken, Instant.now().plusMillis(refreshTokenExpiration))
+                .map(userId -> new Rotation(userId, newToken));
+    }
+
+    @Override
+    public void revokeAll(Long userId) {
+        // Revoked rows are never read again, so drop them rather than flag them
+        refreshTokenRepository.deleteAllByUserId(userId);
+    }
+
+    /**
+     * Delete revoked and expired tokens. Each batch commits on its own so the
+     * purge never holds long locks on the table.
+     */
+    @Scheduled(initialDelay = 60000, fixedDelayString = "${auth.refresh-token.purge-interval-ms:3600000}")
+    public void purgeDeadTokens() {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = refreshTokenRepository.purgeBatch(purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+
+        if (total > 0) {
+            log.info("Purged {} revoked or expired refresh tokens", total);
+        }
+    }
+}
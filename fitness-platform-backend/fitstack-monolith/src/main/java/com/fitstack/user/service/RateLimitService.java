@@ -1,17 +1,26 @@
 package com.fitstack.user.service;
 
+import com.fitstack.user.config.RateLimitProperties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Redis-backed rate limiting service for various endpoints.
  * Blocks IP addresses after too many failed/excessive attempts.
  * Data persists across server restarts.
+ *
+ * Failed attempts are counted in a sliding window by a Lua script that checks the
+ * lockout, records the attempt and applies the lockout in one atomic round trip.
+ * Limits per endpoint type come from {@link RateLimitProperties}.
  */
 @Service
 @RequiredArgsConstructor
@@ -19,23 +28,13 @@ import java.time.Instant;
 public class RateLimitService {
 
     private static final String RATE_LIMIT_PREFIX = "ratelimit:";
-    private static final String ATTEMPTS_SUFFIX = ":attempts";
+    private static final String WINDOW_SUFFIX = ":window";
     private static final String LOCKOUT_SUFFIX = ":lockout";
 
-    // Configurable limits per endpoint type
-    private static final int LOGIN_MAX_ATTEMPTS = 5;
-    private static final long LOGIN_LOCKOUT_SECONDS = 15 * 60; // 15 minutes
-
-    private static final int REGISTER_MAX_ATTEMPTS = 3;
-    private static final long REGISTER_LOCKOUT_SECONDS = 60 * 60; // 1 hour
-
-    private static final int REFRESH_MAX_ATTEMPTS = 10;
-    private static final long REFRESH_LOCKOUT_SECONDS = 5 * 60; // 5 minutes
-
-    private static final int GENERAL_MAX_ATTEMPTS = 100;
-    private static final long GENERAL_LOCKOUT_SECONDS = 60; // 1 minute
+    private static final RedisScript<List> FAILED_ATTEMPT_SCRIPT = loadScript("redis/rate-limit.lua");
 
     private final StringRedisTemplate redisTemplate;
+    private final RateLimitProperties properties;
 
     public enum EndpointType {
         LOGIN, REGISTER, REFRESH, GENERAL
@@ -45,8 +44,7 @@ public class RateLimitService {
      * Check if an IP is currently blocked for a specific endpoint
      */
     public boolean isBlocked(String ipAddress, EndpointType type) {
-        String lockoutKey = buildLockoutKey(ipAddress, type);
-        return Boolean.TRUE.equals(redisTemplate.hasKey(lockoutKey));
+        return getRemainingLockoutSeconds(ipAddress, type) > 0;
     }
 
     /**
@@ -57,7 +55,8 @@ public class RateLimitService {
     }
 
     /**
-     * Get remaining lockout seconds for an IP
+     * Get remaining lockout seconds for an IP (0 when not blocked).
+     * A single TTL call, so callers can use it as the block check as well.
      */
     public long getRemainingLockoutSeconds(String ipAddress, EndpointType type) {
         String lockoutKey = buildLockoutKey(ipAddress, type);
@@ -71,32 +70,38 @@ public class RateLimitService {
 
     /**
      * Record a failed attempt for an endpoint
+     *
+     * @return Lockout seconds now in effect for the IP (0 if still allowed)
      */
-    public void recordFailedAttempt(String ipAddress, EndpointType type) {
-        String attemptsKey = buildAttemptsKey(ipAddress, type);
-        String lockoutKey = buildLockoutKey(ipAddress, type);
-        int maxAttempts = getMaxAttempts(type);
-        long lockoutSeconds = getLockoutSeconds(type);
-
-        // Increment attempts counter
-        Long attempts = redisTemplate.opsForValue().increment(attemptsKey);
-
-        // Set expiry on attempts key if it's new (expires after lockout period)
-        if (attempts != null && attempts == 1) {
-            redisTemplate.expire(attemptsKey, Duration.ofSeconds(lockoutSeconds * 2));
+    @SuppressWarnings("unchecked")
+    public long recordFailedAttempt(String ipAddress, EndpointType type) {
+        RateLimitProperties.Policy policy = properties.getPolicy(type);
+        long now = System.currentTimeMillis();
+
+        List<Long> result = redisTemplate.execute(
+                FAILED_ATTEMPT_SCRIPT,
+                List.of(buildWindowKey(ipAddress, type), buildLockoutKey(ipAddress, type)),
+                String.valueOf(now),
+                String.valueOf(policy.getWindowSeconds() * 1000),
+                String.valueOf(policy.getMaxAttempts()),
+                String.valueOf(policy.getLockoutSeconds()),
+                now + ":" + ThreadLocalRandom.current().nextLong());
+
+        if (result == null || result.size() < 2) {
+            return 0;
         }
 
-        // Check if we should lock out
-        if (attempts != null && attempts >= maxAttempts) {
-            redisTemplate.opsForValue().set(lockoutKey, String.valueOf(Instant.now().toEpochMilli()),
-                    Duration.ofSeconds(lockoutSeconds));
+        long attempts = result.get(0);
+        long lockoutSeconds = result.get(1);
+        if (lockoutSeconds > 0 && attempts >= policy.getMaxAttempts()) {
             log.warn("IP {} blocked for {} endpoint - {} attempts, lockout {} minutes",
                     ipAddress, type, attempts, lockoutSeconds / 60);
         }
+        return lockoutSeconds;
     }
 
-    public void recordFailedAttempt(String ipAddress) {
-        recordFailedAttempt(ipAddress, EndpointType.LOGIN);
+    public long recordFailedAttempt(String ipAddress) {
+        return recordFailedAttempt(ipAddress, EndpointType.LOGIN);
     }
 
     /**
@@ -107,55 +112,44 @@ public class RateLimitService {
     }
 
     public void recordSuccess(String ipAddress, EndpointType type) {
-        String attemptsKey = buildAttemptsKey(ipAddress, type);
-        String lockoutKey = buildLockoutKey(ipAddress, type);
-        redisTemplate.delete(attemptsKey);
-        redisTemplate.delete(lockoutKey);
+        // Single DEL for both keys
+        redisTemplate.delete(List.of(buildWindowKey(ipAddress, type), buildLockoutKey(ipAddress, type)));
     }
 
     /**
-     * Get number of failed attempts for an IP/endpoint
+     * Get number of failed attempts for an IP/endpoint within the current window
      */
     public int getFailedAttempts(String ipAddress, EndpointType type) {
-        String attemptsKey = buildAttemptsKey(ipAddress, type);
-        String value = redisTemplate.opsForValue().get(attemptsKey);
-        return value != null ? Integer.parseInt(value) : 0;
+        RateLimitProperties.Policy policy = properties.getPolicy(type);
+        long now = System.currentTimeMillis();
+        Long count = redisTemplate.opsForZSet().count(
+                buildWindowKey(ipAddress, type), now - policy.getWindowSeconds() * 1000, now);
+        return count != null ? count.intValue() : 0;
     }
 
     /**
      * Get remaining attempts before lockout
      */
     public int getRemainingAttempts(String ipAddress, EndpointType type) {
-        return Math.max(0, getMaxAttempts(type) - getFailedAttempts(ipAddress, type));
+        return Math.max(0, properties.getPolicy(type).getMaxAttempts() - getFailedAttempts(ipAddress, type));
     }
 
     public int getRemainingAttempts(String ipAddress) {
         return getRemainingAttempts(ipAddress, EndpointType.LOGIN);
     }
 
-    private String buildAttemptsKey(String ipAddress, EndpointType type) {
-        return RATE_LIMIT_PREFIX + ipAddress + ":" + type.name() + ATTEMPTS_SUFFIX;
+    private String buildWindowKey(String ipAddress, EndpointType type) {
+        return RATE_LIMIT_PREFIX + ipAddress + ":" + type.name() + WINDOW_SUFFIX;
     }
 
     private String buildLockoutKey(String ipAddress, EndpointType type) {
         return RATE_LIMIT_PREFIX + ipAddress + ":" + type.name() + LOCKOUT_SUFFIX;
     }
 
-    private int getMaxAttempts(EndpointType type) {
-        return switch (type) {
-            case LOGIN -> LOGIN_MAX_ATTEMPTS;
-            case REGISTER -> REGISTER_MAX_ATTEMPTS;
-            case REFRESH -> REFRESH_MAX_ATTEMPTS;
-            case GENERAL -> GENERAL_MAX_ATTEMPTS;
-        };
-    }
-
-    private long getLockoutSeconds(EndpointType type) {
-        return switch (type) {
-            case LOGIN -> LOGIN_LOCKOUT_SECONDS;
-            case REGISTER -> REGISTER_LOCKOUT_SECONDS;
-            case REFRESH -> REFRESH_LOCKOUT_SECONDS;
-            case GENERAL -> GENERAL_LOCKOUT_SECONDS;
-        };
+    private static RedisScript<List> loadScript(String path) {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(List.class);
+        return script;
     }
 }
@@ -0,0 +1,116 @@
+package com.fitstack.user.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Refresh tokens in Redis, one key per user holding the SHA-256 of the live token.
+ *
+ * Tokens have the form {@code <userId>.<secret>} so the owning key can be found
+ * without an index. Keys expire with the token, so nothing needs purging, and
+ * rotation is a single Lua call that swaps the hash only if it still matches.
+ */
+@Service
+@ConditionalOnProperty(name = "auth.refresh-token.store", havingValue = "redis")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisRefreshTokenStore implements RefreshTokenStore {
+
+    private static final String KEY_PREFIX = "refresh:user:";
+    private static final int SECRET_BYTES = 32;
+
+    private static final RedisScript<Long> ROTATE_SCRIPT = loadScript("redis/refresh-rotate.lua");
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${jwt.refresh-expiration:604800000}")
+    private Long refreshTokenExpiration;
+
+    @Override
+    public String issue(Long userId) {
+        String token = newToken(userId);
+        redisTemplate.opsForValue().set(KEY_PREFIX + userId, hash(token), Duration.ofMillis(refreshTokenExpiration));
+        return token;
+    }
+
+    @Override
+    public Optional<Rotation> rotate(String token) {
+        Long userId = parseUserId(token);
+        if (userId == null) {
+            return Optional.empty();
+        }
+
+        String newToken = newToken(userId);
+        Long rotated = redisTemplate.execute(
+                ROTATE_SCRIPT,
+                List.of(KEY_PREFIX + userId),
+                hash(token),
+                hash(newToken),
+                String.valueOf(refreshTokenExpiration));
+
+        return rotated != null && rotated == 1
+                ? Optional.of(new Rotation(userId, newToken))
+                : Optional.empty();
+    }
+
+    @Override
+    public void revokeAll(Long userId) {
+        redisTemplate.delete(KEY_PREFIX + userId);
+    }
+
+    private static String newToken(Long userId) {
+        byte[] secret = new byte[SECRET_BYTES];
+        RANDOM.nextBytes(secret);
+        return userId + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+    }
+
+    private static Long parseUserId(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        try {
+            return Long.parseLong(token.substring(0, dot));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static RedisScript<Long> loadScript(String path) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(Long.class);
+        return script;
+    }
+}
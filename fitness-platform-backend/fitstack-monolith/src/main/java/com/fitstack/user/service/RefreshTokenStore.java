@@ -0,0 +1,33 @@
+package com.fitstack.user.service;
+
+import java.util.Optional;
+
+/**
+ * Storage for refresh tokens. Each user holds at most one live refresh token;
+ * issuing a new one replaces it.
+ *
+ * Selected with {@code auth.refresh-token.store} ({@code jpa} or {@code redis}).
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * Issue a fresh refresh token for a user, invalidating any previous one
+     */
+    String issue(Long userId);
+
+    /**
+     * Consume a refresh token and replace it in one step.
+     *
+     * @return The owner and replacement token, or empty if the token is unknown,
+     *         revoked, expired or was already rotated
+     */
+    Optional<Rotation> rotate(String token);
+
+    /**
+     * Invalidate every refresh token a user holds
+     */
+    void revokeAll(Long userId);
+
+    record Rotation(Long userId, String token) {
+    }
+}
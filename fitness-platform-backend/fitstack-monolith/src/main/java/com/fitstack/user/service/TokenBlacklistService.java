@@ -1,17 +1,52 @@
 package com.fitstack.user.service;
 
+import com.fitstack.user.util.JtiBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Redis-backed token blacklist for invalidated JWTs.
  * Tokens are stored by their JTI (JWT ID) claim with automatic TTL expiration.
+ *
+ * A local Bloom filter sits in front of Redis: JTIs it has never seen are
+ * answered in-process, and only likely hits are confirmed with Redis. Nodes
+ * keep their filters in sync through Redis pub/sub, and each filter is
+ * periodically rebuilt from a SCAN of the blacklist keys to shed expired JTIs.
+ *
+ * Local negatives are only trusted while the subscription is known to be
+ * delivering: each node publishes a heartbeat on the channel, and a missed
+ * heartbeat or a (re)subscription drops the filter out of sync until it has
+ * been rebuilt over a working subscription.
+ *
+ * Blacklist size is tracked with one counter per hourly expiry bucket that
+ * expires together with the tokens in it, so it can be read without KEYS.
  */
 @Service
 @RequiredArgsConstructor
@@ -19,12 +54,79 @@ import java.util.Set;
 public class TokenBlacklistService {
 
     private static final String BLACKLIST_PREFIX = "token:blacklist:";
+    private static final String BLACKLIST_CHANNEL = "token:blacklist:events";
+    private static final String METRIC_LOOKUPS = "fitstack.token.blacklist.lookups";
+    // Never a valid JTI, which are UUIDs
+    private static final String HEARTBEAT = "-";
+    // Deliberately outside BLACKLIST_PREFIX so blacklist SCANs never see the counters
+    private static final String COUNT_PREFIX = "token:blacklist-count:";
+    private static final long COUNT_BUCKET_SECONDS = 3600;
 
     private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth.blacklist.near-cache.enabled:true}")
+    private boolean nearCacheEnabled;
+
+    @Value("${auth.blacklist.near-cache.expected-insertions:100000}")
+    private long expectedInsertions;
+
+    @Value("${auth.blacklist.near-cache.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${auth.blacklist.near-cache.heartbeat-interval-ms:5000}")
+    private long heartbeatIntervalMs;
+
+    // Longest possible token lifetime bounds how many expiry buckets can be live
+    @Value("${jwt.expiration.remember-me:2592000000}")
+    private long maxTokenLifetimeMs;
+
+    private final AtomicLong blacklistSize = new AtomicLong();
+
+    private volatile JtiBloomFilter filter;
+    private volatile JtiBloomFilter rebuilding;
+
+    // True once the filter has been loaded from Redis and pub/sub is delivering updates
+    private volatile boolean synced = false;
+
+    // When this node last received anything on the channel, its own heartbeats included
+    private volatile long lastDeliveryMillis = 0;
+
+    // Bumped on every (re)subscription; a rebuild that straddles one may have missed events
+    private final AtomicLong subscriptions = new AtomicLong();
+
+    private Counter localMissCounter;
+    private Counter hitCounter;
+    private Counter falsePositiveCounter;
+    private Counter fallbackCounter;
+
+    @PostConstruct
+    public void init() {
+        this.filter = new JtiBloomFilter(expectedInsertions, falsePositiveRate);
+
+        localMissCounter = Counter.builder(METRIC_LOOKUPS).tag("result", "local_miss")
+                .description("Lookups answered by the local filter without Redis").register(meterRegistry);
+        hitCounter = Counter.builder(METRIC_LOOKUPS).tag("result", "hit")
+                .description("Lookups confirmed as blacklisted").register(meterRegistry);
+        falsePositiveCounter = Counter.builder(METRIC_LOOKUPS).tag("result", "false_positive")
+                .description("Local filter positives that Redis did not confirm").register(meterRegistry);
+        fallbackCounter = Counter.builder(METRIC_LOOKUPS).tag("result", "fallback")
+                .description("Lookups answered locally because Redis was unreachable").register(meterRegistry);
+        Gauge.builder("fitstack.token.blacklist.near_cache.synced", this, s -> s.synced ? 1 : 0)
+                .description("Whether the local blacklist filter is in sync with Redis").register(meterRegistry);
+        Gauge.builder("fitstack.token.blacklist.size", blacklistSize, AtomicLong::get)
+                .description("Approximate number of blacklisted tokens (refreshed periodically)")
+                .register(meterRegistry);
+
+        if (nearCacheEnabled) {
+            listenerContainer.addMessageListener(new BlacklistEventListener(), new ChannelTopic(BLACKLIST_CHANNEL));
+        }
+    }
 
     /**
      * Add a token to the blacklist
-     * 
+     *
      * @param jti        The JWT ID
      * @param expiryTime When the token would naturally expire
      */
@@ -41,7 +143,24 @@ public class TokenBlacklistService {
             return;
         }
 
-        redisTemplate.opsForValue().set(key, "1", ttl);
+        // Record locally first so this node rejects the token even if Redis is down
+        addLocal(jti);
+
+        // SET, size counter and pub/sub notification in one pipelined round trip
+        long expiryBucket = expiryTime.getEpochSecond() / COUNT_BUCKET_SECONDS;
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] countKey = (COUNT_PREFIX + expiryBucket).getBytes(StandardCharsets.UTF_8);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.stringCommands().set(keyBytes, "1".getBytes(StandardCharsets.UTF_8),
+                    Expiration.from(ttl), RedisStringCommands.SetOption.upsert());
+            connection.stringCommands().incr(countKey);
+            connection.keyCommands().expireAt(countKey, (expiryBucket + 1) * COUNT_BUCKET_SECONDS);
+            if (nearCacheEnabled) {
+                connection.publish(BLACKLIST_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                        jti.getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
         log.info("Token {} added to blacklist (TTL: {} seconds)", jti, ttl.toSeconds());
     }
 
@@ -52,7 +171,92 @@ public class TokenBlacklistService {
         if (jti == null) {
             return false;
         }
-        return Boolean.TRUE.equals(redisTemplate.hasKey(BLACKLIST_PREFIX + jti));
+
+        if (!nearCacheEnabled) {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(BLACKLIST_PREFIX + jti));
+        }
+
+        boolean mightContain = filter.mightContain(jti);
+        if (synced && !mightContain) {
+            localMissCounter.increment();
+            return false;
+        }
+
+        try {
+            boolean blacklisted = Boolean.TRUE.equals(redisTemplate.hasKey(BLACKLIST_PREFIX + jti));
+            if (blacklisted) {
+                hitCounter.increment();
+            } else if (mightContain) {
+                falsePositiveCounter.increment();
+            }
+            return blacklisted;
+        } catch (DataAccessException e) {
+            // Redis unreachable - answer from the local filter, rejecting likely hits
+            synced = false;
+            fallbackCounter.increment();
+            log.warn("Redis unavailable for blacklist lookup, using local filter: {}", e.getMessage());
+            return mightContain;
+        }
+    }
+
+    /**
+     * Publish a heartbeat and check that pub/sub is still delivering. Takes the
+     * filter out of sync when deliveries stop, and rebuilds it once they resume
+     * (which also covers the initial load at startup).
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${auth.blacklist.near-cache.heartbeat-interval-ms:5000}")
+    public void checkSubscription() {
+        if (!nearCacheEnabled) {
+            return;
+        }
+
+        try {
+            redisTemplate.convertAndSend(BLACKLIST_CHANNEL, HEARTBEAT);
+        } catch (DataAccessException e) {
+            log.debug("Could not publish blacklist heartbeat: {}", e.getMessage());
+        }
+
+        if (!isDelivering()) {
+            if (synced) {
+                log.warn("Blacklist pub/sub stopped delivering, checking every token against Redis");
+            }
+            synced = false;
+        } else if (!synced) {
+            rebuildNearCache();
+        }
+    }
+
+    /**
+     * Rebuild the local filter from Redis. Drops expired JTIs and re-establishes
+     * sync after a Redis or subscription outage. Runs periodically, and from
+     * {@link #checkSubscription()} whenever the filter is out of sync.
+     */
+    @Scheduled(initialDelayString = "${auth.blacklist.near-cache.rebuild-interval-ms:600000}",
+            fixedDelayString = "${auth.blacklist.near-cache.rebuild-interval-ms:600000}")
+    public synchronized void rebuildNearCache() {
+        if (!nearCacheEnabled) {
+            return;
+        }
+
+        long subscription = subscriptions.get();
+        JtiBloomFilter fresh = new JtiBloomFilter(expectedInsertions, falsePositiveRate);
+        // Events arriving during the scan go to both filters
+        rebuilding = fresh;
+        try (Cursor<String> cursor = redisTemplate.scan(
+                ScanOptions.scanOptions().match(BLACKLIST_PREFIX + "*").count(1000).build())) {
+            while (cursor.hasNext()) {
+                fresh.put(cursor.next().substring(BLACKLIST_PREFIX.length()));
+            }
+            filter = fresh;
+            // Only trust local negatives if no update could have been missed meanwhile
+            synced = isDelivering() && subscription == subscriptions.get();
+            log.debug("Blacklist near-cache rebuilt with {} entries", fresh.getInsertions());
+        } catch (DataAccessException e) {
+            synced = false;
+            log.warn("Could not rebuild blacklist near-cache from Redis: {}", e.getMessage());
+        } finally {
+            rebuilding = null;
+        }
     }
 
     /**
@@ -66,10 +270,84 @@ public class TokenBlacklistService {
     }
 
     /**
-     * Get approximate count of blacklisted tokens (for monitoring)
+     * Get approximate count of blacklisted tokens (for monitoring).
+     * Served from the last periodic refresh - never touches Redis.
      */
     public long getBlacklistSize() {
-        Set<String> keys = redisTemplate.keys(BLACKLIST_PREFIX + "*");
-        return keys != null ? keys.size() : 0;
+        return blacklistSize.get();
+    }
+
+    /**
+     * Sum the live expiry-bucket counters with a single MGET. Tokens are counted
+     * until the end of their expiry hour, so the figure can run slightly high.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${auth.blacklist.size-refresh-interval-ms:60000}")
+    public void refreshBlacklistSize() {
+        long currentBucket = Instant.now().getEpochSecond() / COUNT_BUCKET_SECONDS;
+        long lastBucket = currentBucket + maxTokenLifetimeMs / 1000 / COUNT_BUCKET_SECONDS + 1;
+
+        List<String> countKeys = new ArrayList<>();
+        for (long bucket = currentBucket; bucket <= lastBucket; bucket++) {
+            countKeys.add(COUNT_PREFIX + bucket);
+        }
+
+        try {
+            List<String> counts = redisTemplate.opsForValue().multiGet(countKeys);
+            long total = 0;
+            if (counts != null) {
+                for (String count : counts) {
+                    if (count != null) {
+                        total += Long.parseLong(count);
+                    }
+                }
+            }
+            blacklistSize.set(total);
+        } catch (DataAccessException e) {
+            log.warn("Could not refresh blacklist size: {}", e.getMessage());
+        }
+    }
+
+    private boolean isDelivering() {
+        return System.currentTimeMillis() - lastDeliveryMillis < heartbeatIntervalMs * 3;
+    }
+
+    private void addLocal(String jti) {
+        // Read the rebuild target first so an entry can't slip between the two filters during a swap
+        JtiBloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(jti);
+        }
+        filter.put(jti);
+    }
+
+    /**
+     * Feeds published JTIs into the filter and tracks the subscription's health.
+     * The container reports (re)subscriptions here, including after it recovers
+     * a dropped connection, and any events published in between were missed.
+     */
+    private class BlacklistEventListener implements MessageListener, SubscriptionListener {
+
+        @Override
+        public void onMessage(Message message, byte[] pattern) {
+            lastDeliveryMillis = System.currentTimeMillis();
+            String jti = new String(message.getBody(), StandardCharsets.UTF_8);
+            if (!HEARTBEAT.equals(jti)) {
+                addLocal(jti);
+            }
+        }
+
+        @Override
+        public void onChannelSubscribed(byte[] channel, long count) {
+            subscriptions.incrementAndGet();
+            synced = false;
+            log.info("Subscribed to blacklist events, near-cache will be rebuilt");
+        }
+
+        @Override
+        public void onChannelUnsubscribed(byte[] channel, long count) {
+            synced = false;
+            lastDeliveryMillis = 0;
+            log.warn("Unsubscribed from blacklist events, checking every token against Redis");
+        }
     }
 }
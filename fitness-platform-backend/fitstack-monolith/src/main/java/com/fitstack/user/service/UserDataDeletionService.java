@@ -1,5 +1,7 @@
 package com.fitstack.user.service;
 
+import com.fitstack.config.AnalyticsCache;
+import com.fitstack.config.AnalyticsDataChangedEvent;
 import com.fitstack.nutrition.repository.CustomFoodRepository;
 import com.fitstack.nutrition.repository.MealFoodRepository;
 import com.fitstack.nutrition.repository.MealPlanRepository;
@@ -7,8 +9,9 @@ import com.fitstack.nutrition.repository.MealRepository;
 import com.fitstack.nutrition.entity.Meal;
 import com.fitstack.user.repository.BodyMetricRepository;
 import com.fitstack.user.repository.GoalRepository;
-import com.fitstack.user.repository.RefreshTokenRepository;
 import com.fitstack.user.repository.UserProfileRepository;
+import com.fitstack.workout.repository.TrainingRollupRepository;
+import com.fitstack.workout.repository.UserExerciseStatsRepository;
 import com.fitstack.workout.repository.WorkoutPlanDayRepository;
 import com.fitstack.workout.repository.WorkoutPlanRepository;
 import com.fitstack.workout.repository.WorkoutSessionRepository;
@@ -18,8 +21,10 @@ import com.fitstack.workout.repository.WorkoutTemplateRepository;
 import com.fitstack.workout.entity.WorkoutPlan;
 import com.fitstack.workout.entity.WorkoutSession;
 import com.fitstack.workout.entity.WorkoutTemplate;
+import com.fitstack.workout.service.ActiveSessionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -37,10 +42,13 @@ public class UserDataDeletionService {
     // Workout repositories
     private final WorkoutSetRepository workoutSetRepository;
     private final WorkoutSessionRepository workoutSessionRepository;
+    private final UserExerciseStatsRepository userExerciseStatsRepository;
+    private final TrainingRollupRepository trainingRollupRepository;
     private final WorkoutTemplateExerciseRepository workoutTemplateExerciseRepository;
     private final WorkoutTemplateRepository workoutTemplateRepository;
     private final WorkoutPlanDayRepository workoutPlanDayRepository;
     private final WorkoutPlanRepository workoutPlanRepository;
+    private final ActiveSessionService activeSessionService;
 
     // Nutrition repositories
     private final MealFoodRepository mealFoodRepository;
@@ -52,7 +60,8 @@ public class UserDataDeletionService {
     private final BodyMetricRepository bodyMetricRepository;
     private final GoalRepository goalRepository;
     private final UserProfileRepository userProfileRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenStore refreshTokenStore;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Deletes ALL data associated with a user in the correct order.
@@ -73,6 +82,7 @@ public class UserDataDeletionService {
      * 12. Goals
      * 13. User profile
      * 14. Refresh tokens
+     * 15. Cached analytics
      */
     @Transactional
     public void deleteAllUserData(Long userId) {
@@ -84,6 +94,8 @@ public class UserDataDeletionService {
         List<WorkoutSession> sessions = workoutSessionRepository.findByUserIdOrderByStartedAtDesc(userId);
         if (!sessions.isEmpty()) {
             List<Long> sessionIds = sessions.stream().map(WorkoutSession::getId).toList();
+            // Sets not yet written behind would otherwise be flushed into deleted sessions
+            sessionIds.forEach(activeSessionService::discard);
             workoutSetRepository.deleteBySessionIdIn(sessionIds);
             log.debug("Deleted workout sets for {} sessions", sessionIds.size());
         }
@@ -91,6 +103,8 @@ public class UserDataDeletionService {
         // 2. Delete workout sessions
         workoutSessionRepository.deleteByUserId(userId);
         log.debug("Deleted workout sessions for user {}", userId);
+        userExerciseStatsRepository.deleteByUserId(userId);
+        trainingRollupRepository.deleteByUserId(userId);
 
         // 3. Delete workout template exercises (need to get template IDs first)
         List<WorkoutTemplate> templates = workoutTemplateRepository.findByUserIdOrderByCreatedAtDesc(userId);
@@ -151,9 +165,13 @@ public class UserDataDeletionService {
         log.debug("Deleted user profile for user {}", userId);
 
         // 14. Delete refresh tokens
-        refreshTokenRepository.deleteByUserId(userId);
+        refreshTokenStore.revokeAll(userId);
         log.debug("Deleted refresh tokens for user {}", userId);
 
+        // 15. Drop cached analytics once the deletion commits
+        eventPublisher.publishEvent(new AnalyticsDataChangedEvent(userId, AnalyticsCache.Scope.WORKOUT));
+        eventPublisher.publishEvent(new AnalyticsDataChangedEvent(userId, AnalyticsCache.Scope.BODY));
+
         log.info("Successfully deleted all data for user {}", userId);
     }
 }
@@ -0,0 +1,44 @@
+package com.fitstack.user.util;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Picks the BCrypt work factor for the current hardware.
+ *
+ * Each +1 in strength doubles the hashing time, so strengths are timed from
+ * the minimum upwards and the highest one that stays within the target wins.
+ */
+public class BCryptCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-Sample-Passw0rd!";
+
+    /**
+     * @param targetMillis Desired time for a single hash
+     * @param minStrength  Lowest acceptable strength (used even if it exceeds the target)
+     * @param maxStrength  Highest strength to consider
+     * @return The chosen strength
+     */
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        int chosen = minStrength;
+
+        // Warm up the JIT so the first timing isn't inflated
+        new BCryptPasswordEncoder(4).encode(SAMPLE_PASSWORD);
+
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(strength).encode(SAMPLE_PASSWORD);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            if (elapsedMillis > targetMillis) {
+                break;
+            }
+            chosen = strength;
+
+            // Next strength would take about twice as long - stop if that would overshoot
+            if (elapsedMillis * 2 > targetMillis) {
+                break;
+            }
+        }
+        return chosen;
+    }
+}
@@ -0,0 +1,93 @@
+package com.fitstack.user.util;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free token bucket. State is swapped atomically with CAS so concurrent
+ * requests for the same key never block each other.
+ *
+ * Tokens consumed locally are tallied separately so they can be reconciled
+ * with other nodes; consumption reported by other nodes is applied with {@link #drain(long)}.
+ */
+public class TokenBucket {
+
+    private record State(double tokens, long lastRefillNanos) {
+    }
+
+    private final double capacity;
+    private final double refillPerNano;
+    private final AtomicReference<State> state;
+    private final LongAdder unsynced = new LongAdder();
+
+    // Cluster-wide reconciliation bookkeeping, only touched by the reconciler thread
+    private long syncWindow = -1;
+    private long lastClusterTotal = 0;
+
+    public TokenBucket(long capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.state = new AtomicReference<>(new State(capacity, System.nanoTime()));
+    }
+
+    /**
+     * Try to take {@code cost} tokens.
+     *
+     * @return 0 if the tokens were taken, otherwise seconds until enough tokens are available
+     */
+    public long tryConsume(long cost) {
+        while (true) {
+            State current = state.get();
+            long now = System.nanoTime();
+            double tokens = refill(current, now);
+
+            if (tokens < cost) {
+                double missing = cost - tokens;
+                return Math.max(1, (long) Math.ceil(missing / (refillPerNano * 1_000_000_000d)));
+            }
+            if (state.compareAndSet(current, new State(tokens - cost, now))) {
+                unsynced.add(cost);
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Remove tokens consumed elsewhere (never below zero)
+     */
+    public void drain(long amount) {
+        if (amount <= 0) {
+            return;
+        }
+        while (true) {
+            State current = state.get();
+            long now = System.nanoTime();
+            double tokens = Math.max(0, refill(current, now) - amount);
+            if (state.compareAndSet(current, new State(tokens, now))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Tokens consumed on this node since the last call
+     */
+    public long takeUnsynced() {
+        return unsynced.sumThenReset();
+    }
+
+    /**
+     * Apply the cluster total returned after reporting {@code localDelta} for {@code window}.
+     * Whatever other nodes consumed since the previous sync is drained from this bucket.
+     */
+    public void reconcile(long window, long clusterTotal, long localDelta) {
+        long previous = window == syncWindow ? lastClusterTotal : 0;
+        drain(clusterTotal - previous - localDelta);
+        syncWindow = window;
+        lastClusterTotal = clusterTotal;
+    }
+
+    private double refill(State current, long now) {
+        return Math.min(capacity, current.tokens() + (now - current.lastRefillNanos()) * refillPerNano);
+    }
+}
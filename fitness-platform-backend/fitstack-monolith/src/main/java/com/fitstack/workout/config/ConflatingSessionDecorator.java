@@ -0,0 +1,199 @@
+package com.fitstack.workout.config;
+
+import jakarta.websocket.Session;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.NativeWebSocketSession;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Per-session outbound queue that conflates superseded frames.
+ *
+ * Sends are queued and written to the socket by a shared executor, so a slow
+ * client only delays its own frames. Each blocking write is bounded by the
+ * send time limit, after which the session is closed and the thread freed. Frames carrying a conflation header (e.g.
+ * rest timer state) replace any queued frame with the same key and
+ * subscription, so a client that falls behind gets the latest state rather
+ * than a backlog of stale ones. A client whose queue, buffered bytes or
+ * in-flight send exceeds the limits is closed as a slow consumer.
+ */
+class ConflatingSessionDecorator extends WebSocketSessionDecorator {
+
+    static final String CONFLATE_HEADER = "x-conflate";
+
+    // Tomcat's per-session override of its 20 s blocking-send timeout, in ms (a Long)
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final Executor sendExecutor;
+    private final WebSocketSessionConflation.Limits limits;
+    private final WebSocketSessionConflation.Stats stats;
+
+    private final Deque<Pending> queue = new ArrayDeque<>();
+    private final Map<String, Pending> queuedByKey = new HashMap<>();
+    private long queuedBytes;
+    private boolean draining;
+    private volatile long sendStartedAt;
+    private volatile boolean closed;
+
+    ConflatingSessionDecorator(WebSocketSession delegate, Executor sendExecutor,
+            WebSocketSessionConflation.Limits limits, WebSocketSessionConflation.Stats stats) {
+        super(delegate);
+        this.sendExecutor = sendExecutor;
+        this.limits = limits;
+        this.stats = stats;
+
+        if (delegate instanceof NativeWebSocketSession nativeSession
+                && nativeSession.getNativeSession() instanceof Session session) {
+            session.getUserProperties().put(BLOCKING_SEND_TIMEOUT, limits.sendTimeLimitMs());
+        }
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (closed) {
+            return;
+        }
+
+        String key = conflationKey(message);
+        boolean startDrain;
+        int depth;
+        synchronized (this) {
+            Pending superseded = key != null ? queuedByKey.get(key) : null;
+            if (superseded != null) {
+                queuedBytes += message.getPayloadLength() - superseded.message.getPayloadLength();
+                superseded.message = message;
+                stats.conflated();
+            } else {
+                Pending pending = new Pending(key, message);
+                queue.add(pending);
+                if (key != null) {
+                    queuedByKey.put(key, pending);
+                }
+                queuedBytes += message.getPayloadLength();
+            }
+            depth = queue.size();
+
+            checkLimits();
+            startDrain = !draining;
+            draining = true;
+        }
+        stats.queued(depth);
+
+        if (startDrain) {
+            sendExecutor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Frames currently waiting to be written to this client
+     */
+    synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    void discard() {
+        closed = true;
+        synchronized (this) {
+            queue.clear();
+            queuedByKey.clear();
+            queuedBytes = 0;
+        }
+    }
+
+    // Caller holds the lock
+    private void checkLimits() throws SessionLimitExceededException {
+        String reason = null;
+        if (queue.size() > limits.maxQueuedMessages()) {
+            reason = queue.size() + " frames queued";
+        } else if (queuedBytes > limits.bufferSizeLimit()) {
+            reason = queuedBytes + " bytes queued";
+        } else if (draining && sendStartedAt > 0 && System.currentTimeMillis() - sendStartedAt > limits.sendTimeLimitMs()) {
+            reason = "send blocked for more than " + limits.sendTimeLimitMs() + " ms";
+        }
+
+        if (reason != null) {
+            closed = true;
+            stats.slowConsumerClosed();
+            throw new SessionLimitExceededException("Slow consumer, " + reason, CloseStatus.SESSION_NOT_RELIABLE);
+        }
+    }
+
+    private void drain() {
+        while (!closed) {
+            WebSocketMessage<?> next;
+            synchronized (this) {
+                Pending pending = queue.poll();
+                if (pending == null) {
+                    draining = false;
+                    sendStartedAt = 0;
+                    return;
+                }
+                if (pending.key != null) {
+                    queuedByKey.remove(pending.key);
+                }
+                queuedBytes -= pending.message.getPayloadLength();
+                next = pending.message;
+            }
+
+            sendStartedAt = System.currentTimeMillis();
+            try {
+                getDelegate().sendMessage(next);
+            } catch (IOException | RuntimeException e) {
+                discard();
+                try {
+                    getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+                } catch (IOException ignored) {
+                    // Already gone
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Conflation key from the STOMP frame headers: the conflate header plus the
+     * subscription, or null for frames that must all be delivered
+     */
+    private static String conflationKey(WebSocketMessage<?> message) {
+        if (!(message instanceof TextMessage text)) {
+            return null;
+        }
+        String frame = text.getPayload();
+        int headersEnd = frame.indexOf("\n\n");
+        if (headersEnd < 0 || !frame.startsWith("MESSAGE")) {
+            return null;
+        }
+        String conflate = header(frame, headersEnd, CONFLATE_HEADER);
+        return conflate != null ? conflate + "@" + header(frame, headersEnd, "subscription") : null;
+    }
+
+    private static String header(String frame, int headersEnd, String name) {
+        int start = frame.indexOf("\n" + name + ":");
+        if (start < 0 || start > headersEnd) {
+            return null;
+        }
+        start += name.length() + 2;
+        int end = frame.indexOf('\n', start);
+        return frame.substring(start, end);
+    }
+
+    private static final class Pending {
+        final String key;
+        WebSocketMessage<?> message;
+
+        Pending(String key, WebSocketMessage<?> message) {
+            this.key = key;
+            this.message = message;
+        }
+    }
+}
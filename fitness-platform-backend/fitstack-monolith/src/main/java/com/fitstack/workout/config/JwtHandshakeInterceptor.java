@@ -1,6 +1,8 @@
 package com.fitstack.workout.config;
 
 import com.fitstack.user.config.JwtUtil;
+import com.fitstack.user.config.VerifiedToken;
+import com.fitstack.user.service.TokenBlacklistService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.server.ServerHttpRequest;
@@ -18,6 +20,9 @@ import java.util.Map;
  * Intercepts WebSocket handshake requests to validate JWT tokens.
  * Token can be passed as query parameter: ?token=xxx
  * Or as Authorization header: Bearer xxx
+ *
+ * A handshake without a token is let through; the client must then send the
+ * token on the STOMP CONNECT frame (see {@link StompAuthChannelInterceptor}).
  */
 @Component
 @RequiredArgsConstructor
@@ -25,6 +30,7 @@ import java.util.Map;
 public class JwtHandshakeInterceptor implements HandshakeInterceptor {
 
     private final JwtUtil jwtUtil;
+    private final TokenBlacklistService tokenBlacklistService;
 
     @Override
     public boolean beforeHandshake(
@@ -35,13 +41,15 @@ public class JwtHandshakeInterceptor implements HandshakeInterceptor {
         String token = extractToken(request);
 
         if (token == null) {
-            log.warn("WebSocket connection rejected: No token provided");
-            return false;
+            // Deferred to the CONNECT frame
+            log.debug("WebSocket handshake without token - expecting it on STOMP CONNECT");
+            return true;
         }
 
         try {
-            String email = jwtUtil.extractEmail(token);
-            Long userId = jwtUtil.extractUserId(token);
+            VerifiedToken verified = jwtUtil.verify(token);
+            String email = verified.email();
+            Long userId = verified.userId();
 
             if (email == null || userId == null) {
                 log.warn("WebSocket connection rejected: Invalid token claims");
@@ -49,11 +57,16 @@ public class JwtHandshakeInterceptor implements HandshakeInterceptor {
             }
 
             // Check if token is expired
-            if (jwtUtil.extractExpiration(token).before(new java.util.Date())) {
+            if (verified.isExpired()) {
                 log.warn("WebSocket connection rejected: Token expired");
                 return false;
             }
 
+            if (tokenBlacklistService.isBlacklisted(verified.jti())) {
+                log.warn("WebSocket connection rejected: Token is blacklisted");
+                return false;
+            }
+
             // Store user info in WebSocket session attributes
             attributes.put("userId", userId);
             attributes.put("email", email);
@@ -0,0 +1,175 @@
+package com.fitstack.workout.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bridges /topic/workout/* between nodes that each run the in-memory broker.
+ *
+ * Messages the application publishes on this node are delivered locally as
+ * usual and also published to a Redis channel, native STOMP headers included.
+ * Every other node re-publishes them into its own broker. Copies arriving from
+ * Redis are marked so they are never sent back out.
+ */
+@Component
+@ConditionalOnProperty(name = "websocket.broker.mode", havingValue = "redis")
+@Slf4j
+public class RedisBrokerBridge implements ChannelInterceptor {
+
+    private static final String BRIDGED_HEADER = "fanoutBridged";
+    private static final String BRIDGED_PREFIX = "/topic/workout/";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectProvider<SimpMessagingTemplate> messagingTemplate;
+    private final byte[] channel;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Counter forwarded;
+    private final Counter received;
+
+    public RedisBrokerBridge(
+            StringRedisTemplate redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            ObjectProvider<SimpMessagingTemplate> messagingTemplate,
+            WebSocketBrokerProperties properties,
+            MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.messagingTemplate = messagingTemplate;
+        this.channel = properties.getRedisChannel().getBytes(StandardCharsets.UTF_8);
+        this.forwarded = Counter.builder("fitstack.websocket.fanout.bridge")
+                .description("Messages forwarded between nodes over Redis")
+                .tag("direction", "out").register(meterRegistry);
+        this.received = Counter.builder("fitstack.websocket.fanout.bridge")
+                .description("Messages forwarded between nodes over Redis")
+                .tag("direction", "in").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> receive(message.getBody()),
+                new ChannelTopic(new String(channel, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Broker channel hook: forward locally published workout messages to other nodes
+     */
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel messageChannel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE
+                || message.getHeaders().containsKey(BRIDGED_HEADER)
+                || !(message.getPayload() instanceof byte[] body)) {
+            return message;
+        }
+
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null || !destination.startsWith(BRIDGED_PREFIX)) {
+            return message;
+        }
+
+        Object contentType = message.getHeaders().get(SimpMessageHeaderAccessor.CONTENT_TYPE);
+        byte[] frame = encode(destination, contentType != null ? contentType.toString() : "",
+                SimpMessageHeaderAccessor.wrap(message).toNativeHeaderMap(), body);
+        try {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, frame));
+            forwarded.increment();
+        } catch (DataAccessException e) {
+            // Local subscribers still get the message
+            log.warn("Could not forward WebSocket message to other nodes: {}", e.getMessage());
+        }
+        return message;
+    }
+
+    void receive(byte[] frame) {
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        String origin = readString(buffer);
+        if (nodeId.equals(origin)) {
+            return;
+        }
+        String destination = readString(buffer);
+        String contentType = readString(buffer);
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        if (!contentType.isEmpty()) {
+            accessor.setContentType(MimeType.valueOf(contentType));
+        }
+        // Publish time, conflation key and any other STOMP headers the publisher set
+        for (int headers = buffer.getInt(); headers > 0; headers--) {
+            accessor.addNativeHeader(readString(buffer), readString(buffer));
+        }
+        byte[] body = new byte[buffer.remaining()];
+        buffer.get(body);
+
+        accessor.setHeader(BRIDGED_HEADER, Boolean.TRUE);
+        accessor.setLeaveMutable(true);
+
+        messagingTemplate.getObject().send(destination, MessageBuilder.createMessage(body, accessor.getMessageHeaders()));
+        received.increment();
+    }
+
+    // Frame: length-prefixed origin node, destination and content type, a count of native
+    // header values followed by length-prefixed name/value pairs, then the raw body
+    byte[] encode(String destination, String contentType, Map<String, List<String>> nativeHeaders, byte[] body) {
+        List<byte[]> fields = new ArrayList<>();
+        fields.add(nodeId.getBytes(StandardCharsets.UTF_8));
+        fields.add(destination.getBytes(StandardCharsets.UTF_8));
+        fields.add(contentType.getBytes(StandardCharsets.UTF_8));
+        List<byte[]> headers = new ArrayList<>();
+        nativeHeaders.forEach((name, values) -> values.forEach(value -> {
+            headers.add(name.getBytes(StandardCharsets.UTF_8));
+            headers.add(value.getBytes(StandardCharsets.UTF_8));
+        }));
+
+        int size = Integer.BYTES + body.length;
+        for (byte[] field : fields) {
+            size += Integer.BYTES + field.length;
+        }
+        for (byte[] field : headers) {
+            size += Integer.BYTES + field.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] field : fields) {
+            buffer.putInt(field.length).put(field);
+        }
+        buffer.putInt(headers.size() / 2);
+        for (byte[] field : headers) {
+            buffer.putInt(field.length).put(field);
+        }
+        return buffer.put(body).array();
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,110 @@
+package com.fitstack.workout.config;
+
+import com.fitstack.workout.service.RestTimerStore;
+import com.fitstack.workout.service.WorkoutStreamService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Counts this node's subscriptions to /topic/workout/{sessionId}/ticks and
+ * publishes the count to the {@link RestTimerStore}, so the node running a
+ * timer only schedules per-second ticks while some connection wants them.
+ *
+ * Clients that count down from the deadline subscribe to .../sync instead,
+ * or to nothing extra, and cost no per-second work at all.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RestTimerTickSubscriptions {
+
+    private final RestTimerStore store;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // STOMP session ID -> subscription ID -> workout session ID, tick subscriptions only
+    private final Map<String, Map<String, Long>> subscriptions = new HashMap<>();
+    // Workout session ID -> tick subscriptions on this node
+    private final Map<Long, Integer> counts = new HashMap<>();
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Long sessionId = ticksSession(accessor.getDestination());
+        if (sessionId == null || accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        synchronized (this) {
+            Long previous = subscriptions.computeIfAbsent(accessor.getSessionId(), id -> new HashMap<>())
+                    .put(accessor.getSubscriptionId(), sessionId);
+            if (previous != null) {
+                // Subscription ID reused without an UNSUBSCRIBE
+                change(previous, -1);
+            }
+            change(sessionId, 1);
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        synchronized (this) {
+            Map<String, Long> connection = subscriptions.get(accessor.getSessionId());
+            Long sessionId = connection != null ? connection.remove(accessor.getSubscriptionId()) : null;
+            if (sessionId != null) {
+                change(sessionId, -1);
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        synchronized (this) {
+            Map<String, Long> connection = subscriptions.remove(event.getSessionId());
+            if (connection != null) {
+                connection.values().forEach(sessionId -> change(sessionId, -1));
+            }
+        }
+    }
+
+    // Caller holds the lock, so the store sees each session's counts in order
+    private void change(Long sessionId, int delta) {
+        int count = counts.merge(sessionId, delta, Integer::sum);
+        if (count <= 0) {
+            counts.remove(sessionId);
+        }
+        // Only the first subscriber and the last unsubscribe change whether ticks run
+        if (count > 1 || (count == 1 && delta < 0)) {
+            return;
+        }
+        try {
+            store.saveTickSubscribers(sessionId, nodeId, Math.max(0, count));
+        } catch (DataAccessException e) {
+            // The timer keeps its current tick state until the next change
+            log.warn("Could not record tick subscribers for session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    private static Long ticksSession(String destination) {
+        if (destination == null || !destination.startsWith(WorkoutStreamService.DESTINATION_PREFIX)
+                || !destination.endsWith(WorkoutStreamService.TICKS_SUFFIX)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(destination.substring(WorkoutStreamService.DESTINATION_PREFIX.length(),
+                    destination.length() - WorkoutStreamService.TICKS_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.fitstack.workout.config;
+
+import com.fitstack.user.config.JwtUserPrincipal;
+import com.fitstack.user.config.JwtUtil;
+import com.fitstack.user.config.VerifiedToken;
+import com.fitstack.user.service.TokenBlacklistService;
+import com.fitstack.workout.repository.WorkoutSessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Authenticates STOMP clients once at CONNECT and authorizes every later
+ * SUBSCRIBE and SEND against the workout sessions the user owns.
+ *
+ * The principal comes from an {@code Authorization} header on the CONNECT frame,
+ * or from the identity {@link JwtHandshakeInterceptor} stored at handshake. The
+ * user's in-progress session IDs are loaded at CONNECT; sessions started later
+ * are checked once and then remembered for the life of the socket.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final Pattern WORKOUT_DESTINATION = Pattern.compile("^/(?:app|topic)/workout/([^/]+)(?:/.*)?$");
+
+    private final JwtUtil jwtUtil;
+    private final TokenBlacklistService tokenBlacklistService;
+    private final WorkoutSessionRepository workoutSessionRepository;
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (attributes == null) {
+            throw new MessageDeliveryException("No WebSocket session");
+        }
+
+        switch (accessor.getCommand()) {
+            case CONNECT, STOMP -> {
+                StompSessionAccess access = authenticate(accessor, attributes);
+                attributes.put(StompSessionAccess.ATTRIBUTE, access);
+                accessor.setUser(access.principal());
+                log.debug("STOMP session {} authenticated for user {}",
+                        accessor.getSessionId(), access.principal().userId());
+            }
+            case SUBSCRIBE, SEND -> authorize(accessor, attributes);
+            default -> {
+                // DISCONNECT, ACK, heartbeats etc. need no checks
+            }
+        }
+        return message;
+    }
+
+    private StompSessionAccess authenticate(StompHeaderAccessor accessor, Map<String, Object> attributes) {
+        JwtUserPrincipal principal;
+
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            principal = verify(authHeader.substring(7));
+        } else if (attributes.get("userId") instanceof Long userId && attributes.get("email") instanceof String email) {
+            // Already verified during the handshake
+            principal = new JwtUserPrincipal(userId, email);
+        } else {
+            log.warn("STOMP CONNECT rejected: No token provided");
+            throw new MessageDeliveryException("Authentication required");
+        }
+
+        return new StompSessionAccess(principal,
+                workoutSessionRepository.findInProgressIdsByUserId(principal.userId()));
+    }
+
+    private JwtUserPrincipal verify(String token) {
+        try {
+            VerifiedToken verified = jwtUtil.verify(token);
+            if (verified.email() == null || verified.userId() == null || verified.isExpired()) {
+                throw new MessageDeliveryException("Invalid token");
+            }
+            if (tokenBlacklistService.isBlacklisted(verified.jti())) {
+                log.warn("STOMP CONNECT rejected: Token is blacklisted");
+                throw new MessageDeliveryException("Token has been revoked");
+            }
+            return JwtUserPrincipal.of(verified);
+        } catch (MessageDeliveryException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("STOMP CONNECT rejected: Token validation failed - {}", e.getMessage());
+            throw new MessageDeliveryException("Invalid token");
+        }
+    }
+
+    private void authorize(StompHeaderAccessor accessor, Map<String, Object> attributes) {
+        if (!(attributes.get(StompSessionAccess.ATTRIBUTE) instanceof StompSessionAccess access)) {
+            throw new MessageDeliveryException("Not connected");
+        }
+
+        String destination = accessor.getDestination();
+        if (destination == null) {
+            return;
+        }
+
+        Matcher matcher = WORKOUT_DESTINATION.matcher(destination);
+        if (!matcher.matches()) {
+            return;
+        }
+
+        Long workoutSessionId;
+        try {
+            workoutSessionId = Long.valueOf(matcher.group(1));
+        } catch (NumberFormatException e) {
+            throw new MessageDeliveryException("Invalid workout session destination");
+        }
+
+        Boolean isOwner = access.cachedOwnership(workoutSessionId);
+        if (isOwner == null) {
+            isOwner = workoutSessionRepository.existsByIdAndUserId(workoutSessionId, access.principal().userId());
+            access.remember(workoutSessionId, isOwner);
+        }
+
+        if (!isOwner) {
+            log.warn("SECURITY: User {} denied {} to workout session {}",
+                    access.principal().userId(), accessor.getCommand(), workoutSessionId);
+            throw new MessageDeliveryException("Access denied to workout session " + workoutSessionId);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.fitstack.workout.config;
+
+import com.fitstack.user.config.JwtUserPrincipal;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-WebSocket-session authorization state, created at STOMP CONNECT and kept
+ * in the session attributes until the socket closes.
+ *
+ * Remembers which workout sessions the user was found to own (or not own), so
+ * SUBSCRIBE and SEND frames are authorized from memory after the first check.
+ */
+class StompSessionAccess {
+
+    static final String ATTRIBUTE = "stompSessionAccess";
+
+    // Bounds memory if a client probes many session IDs it doesn't own
+    private static final int MAX_DENIED = 64;
+
+    private final JwtUserPrincipal principal;
+    private final Set<Long> owned = ConcurrentHashMap.newKeySet();
+    private final Set<Long> denied = ConcurrentHashMap.newKeySet();
+
+    StompSessionAccess(JwtUserPrincipal principal, Iterable<Long> ownedSessionIds) {
+        this.principal = principal;
+        ownedSessionIds.forEach(owned::add);
+    }
+
+    JwtUserPrincipal principal() {
+        return principal;
+    }
+
+    /**
+     * @return TRUE/FALSE if ownership is already known, null if it must be looked up
+     */
+    Boolean cachedOwnership(Long workoutSessionId) {
+        if (owned.contains(workoutSessionId)) {
+            return Boolean.TRUE;
+        }
+        if (denied.contains(workoutSessionId)) {
+            return Boolean.FALSE;
+        }
+        return null;
+    }
+
+    void remember(Long workoutSessionId, boolean isOwner) {
+        if (isOwner) {
+            owned.add(workoutSessionId);
+        } else if (denied.size() < MAX_DENIED) {
+            denied.add(workoutSessionId);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.fitstack.workout.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * WebSocket broker settings, bound from websocket.broker.* in application.properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "websocket.broker")
+@Data
+public class WebSocketBrokerProperties {
+
+    public enum Mode {
+        // In-memory broker; messages only reach clients on this node
+        SIMPLE,
+        // External STOMP broker (RabbitMQ, ActiveMQ) shared by all nodes
+        RELAY,
+        // In-memory broker per node, /topic/workout/* bridged between nodes over Redis pub/sub
+        REDIS
+    }
+
+    private Mode mode = Mode.SIMPLE;
+
+    private Relay relay = new Relay();
+
+    private String redisChannel = "ws:fanout";
+
+    @Data
+    public static class Relay {
+        private String host = "localhost";
+        private int port = 61613;
+        private String clientLogin = "guest";
+        private String clientPasscode = "guest";
+        private String systemLogin = "guest";
+        private String systemPasscode = "guest";
+        private String virtualHost;
+    }
+}
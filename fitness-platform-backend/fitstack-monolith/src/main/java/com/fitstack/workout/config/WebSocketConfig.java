@@ -1,24 +1,90 @@
 package com.fitstack.workout.config;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
 @Configuration
 @EnableWebSocketMessageBroker
 @RequiredArgsConstructor
+@Slf4j
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+    private final WebSocketBrokerProperties brokerProperties;
+    private final WebSocketFanoutMetrics fanoutMetrics;
+    private final ObjectProvider<RedisBrokerBridge> redisBrokerBridge;
+    private final WebSocketTransportProperties transportProperties;
+    private final WebSocketSessionConflation sessionConflation;
 
     @Override
     public void configureMessageBroker(@NonNull MessageBrokerRegistry registry) {
-        registry.enableSimpleBroker("/topic");
+        switch (brokerProperties.getMode()) {
+            case RELAY -> {
+                WebSocketBrokerProperties.Relay relay = brokerProperties.getRelay();
+                StompBrokerRelayRegistration registration = registry.enableStompBrokerRelay("/topic")
+                        .setRelayHost(relay.getHost())
+                        .setRelayPort(relay.getPort())
+                        .setClientLogin(relay.getClientLogin())
+                        .setClientPasscode(relay.getClientPasscode())
+                        .setSystemLogin(relay.getSystemLogin())
+                        .setSystemPasscode(relay.getSystemPasscode());
+                if (relay.getVirtualHost() != null) {
+                    registration.setVirtualHost(relay.getVirtualHost());
+                }
+            }
+            case SIMPLE, REDIS -> registry.enableSimpleBroker("/topic");
+        }
         registry.setApplicationDestinationPrefixes("/app");
+
+        // Stamp published messages first so the bridge forwards the stamp
+        registry.configureBrokerChannel().interceptors(fanoutMetrics.publishInterceptor());
+        redisBrokerBridge.ifAvailable(bridge -> registry.configureBrokerChannel().interceptors(bridge));
+
+        log.info("WebSocket broker mode: {}", brokerProperties.getMode());
+    }
+
+    @Override
+    public void configureClientInboundChannel(@NonNull ChannelRegistration registration) {
+        // Authenticate at CONNECT, then authorize SUBSCRIBE/SEND per workout session
+        registration.interceptors(stompAuthChannelInterceptor);
+        configureExecutor(registration, transportProperties.getInbound());
+    }
+
+    @Override
+    public void configureClientOutboundChannel(@NonNull ChannelRegistration registration) {
+        registration.interceptors(fanoutMetrics.deliveryInterceptor());
+        configureExecutor(registration, transportProperties.getOutbound());
+    }
+
+    @Override
+    public void configureWebSocketTransport(@NonNull WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(transportProperties.getSendTimeLimitMs())
+                .setSendBufferSizeLimit(transportProperties.getSendBufferSizeLimit())
+                .setMessageSizeLimit(transportProperties.getMessageSizeLimit())
+                .addDecoratorFactory(sessionConflation);
+    }
+
+    private static void configureExecutor(ChannelRegistration registration, WebSocketTransportProperties.Pool pool) {
+        if (pool.getCorePoolSize() > 0) {
+            registration.taskExecutor().corePoolSize(pool.getCorePoolSize());
+        }
+        if (pool.getMaxPoolSize() > 0) {
+            registration.taskExecutor().maxPoolSize(pool.getMaxPoolSize());
+        }
+        if (pool.getQueueCapacity() > 0) {
+            registration.taskExecutor().queueCapacity(pool.getQueueCapacity());
+        }
     }
 
     @Override
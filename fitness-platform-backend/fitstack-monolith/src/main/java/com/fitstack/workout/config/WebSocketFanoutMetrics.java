@@ -0,0 +1,110 @@
+package com.fitstack.workout.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Message-rate and fan-out latency metrics for the WebSocket broker, whatever
+ * the broker mode.
+ *
+ * Messages the application publishes are stamped with a publish-time header
+ * (carried through a relay or the Redis bridge). When a copy reaches this
+ * node's client outbound channel the time since publishing is recorded, so
+ * latency covers the full hop to the socket. Cross-node latency includes clock
+ * skew between nodes.
+ */
+@Component
+@Slf4j
+public class WebSocketFanoutMetrics {
+
+    static final String PUBLISHED_AT_HEADER = "x-published-at";
+
+    private final Counter published;
+    private final Counter delivered;
+    private final Timer fanoutLatency;
+
+    private final ChannelInterceptor publishInterceptor = new ChannelInterceptor() {
+        @Override
+        public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+            return stamp(message);
+        }
+    };
+
+    private final ChannelInterceptor deliveryInterceptor = new ChannelInterceptor() {
+        @Override
+        public void afterSendCompletion(@NonNull Message<?> message, @NonNull MessageChannel channel,
+                boolean sent, Exception ex) {
+            if (sent) {
+                recordDelivery(message);
+            }
+        }
+    };
+
+    public WebSocketFanoutMetrics(MeterRegistry meterRegistry, WebSocketBrokerProperties properties) {
+        String mode = properties.getMode().name().toLowerCase();
+        this.published = Counter.builder("fitstack.websocket.fanout.published")
+                .description("Messages published to the broker by this node")
+                .tag("mode", mode).register(meterRegistry);
+        this.delivered = Counter.builder("fitstack.websocket.fanout.delivered")
+                .description("Messages delivered to WebSocket clients on this node")
+                .tag("mode", mode).register(meterRegistry);
+        this.fanoutLatency = Timer.builder("fitstack.websocket.fanout.latency")
+                .description("Time from publish to hand-off to a client connection on this node")
+                .tag("mode", mode).register(meterRegistry);
+    }
+
+    /**
+     * For the broker channel: stamps messages the application publishes
+     */
+    public ChannelInterceptor publishInterceptor() {
+        return publishInterceptor;
+    }
+
+    /**
+     * For the client outbound channel: records deliveries and their latency
+     */
+    public ChannelInterceptor deliveryInterceptor() {
+        return deliveryInterceptor;
+    }
+
+    private Message<?> stamp(Message<?> message) {
+        // Bridged copies keep the stamp from their origin node
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE
+                || SimpMessageHeaderAccessor.getFirstNativeHeader(PUBLISHED_AT_HEADER, message.getHeaders()) != null) {
+            return message;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        accessor.setNativeHeader(PUBLISHED_AT_HEADER, String.valueOf(System.currentTimeMillis()));
+        published.increment();
+        return MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+    }
+
+    private void recordDelivery(Message<?> message) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return;
+        }
+        delivered.increment();
+
+        String publishedAt = SimpMessageHeaderAccessor.getFirstNativeHeader(PUBLISHED_AT_HEADER, message.getHeaders());
+        if (publishedAt != null) {
+            try {
+                long latency = System.currentTimeMillis() - Long.parseLong(publishedAt);
+                fanoutLatency.record(Math.max(0, latency), TimeUnit.MILLISECONDS);
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed {} header: {}", PUBLISHED_AT_HEADER, publishedAt);
+            }
+        }
+    }
+}
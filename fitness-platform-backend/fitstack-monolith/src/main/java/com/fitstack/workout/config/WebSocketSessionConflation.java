@@ -0,0 +1,144 @@
+package com.fitstack.workout.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Installs {@link ConflatingSessionDecorator} under every WebSocket session and
+ * owns the send executor and per-session queue metrics. The executor grows
+ * while sends are blocked, so slow sessions end up on threads of their own.
+ *
+ * The handler decorator hands the STOMP handler a wrapped session, so every
+ * frame it writes goes through the session's conflating queue.
+ */
+@Component
+public class WebSocketSessionConflation implements WebSocketHandlerDecoratorFactory {
+
+    record Limits(int maxQueuedMessages, long bufferSizeLimit, long sendTimeLimitMs) {
+    }
+
+    /**
+     * Meters shared by all sessions
+     */
+    static final class Stats {
+        private final Counter conflated;
+        private final Counter slowConsumers;
+        private final DistributionSummary queueDepth;
+
+        Stats(MeterRegistry meterRegistry) {
+            conflated = Counter.builder("fitstack.websocket.session.conflated")
+                    .description("Queued frames replaced by a newer frame with the same conflation key")
+                    .register(meterRegistry);
+            slowConsumers = Counter.builder("fitstack.websocket.session.slow_consumer_closed")
+                    .description("Sessions closed for falling too far behind")
+                    .register(meterRegistry);
+            queueDepth = DistributionSummary.builder("fitstack.websocket.session.queue.depth")
+                    .description("Per-session outbound queue depth, sampled on each send")
+                    .register(meterRegistry);
+        }
+
+        void conflated() {
+            conflated.increment();
+        }
+
+        void slowConsumerClosed() {
+            slowConsumers.increment();
+        }
+
+        void queued(int depth) {
+            queueDepth.record(depth);
+        }
+    }
+
+    private final WebSocketTransportProperties properties;
+    private final Map<String, ConflatingSessionDecorator> sessions = new ConcurrentHashMap<>();
+    private final ThreadPoolTaskExecutor sendExecutor;
+    private final Limits limits;
+    private final Stats stats;
+
+    public WebSocketSessionConflation(WebSocketTransportProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limits = new Limits(
+                properties.getConflation().getMaxQueuedMessages(),
+                properties.getSendBufferSizeLimit(),
+                properties.getSendTimeLimitMs());
+        this.stats = new Stats(meterRegistry);
+
+        this.sendExecutor = new ThreadPoolTaskExecutor();
+        // No queue: when every thread is blocked on a slow socket a new one is started, so
+        // stuck sends can't hold up other sessions. Past the maximum the caller sends itself.
+        sendExecutor.setCorePoolSize(properties.getConflation().getSendThreads());
+        sendExecutor.setMaxPoolSize(Math.max(properties.getConflation().getMaxSendThreads(),
+                properties.getConflation().getSendThreads()));
+        sendExecutor.setQueueCapacity(0);
+        sendExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        sendExecutor.setThreadNamePrefix("ws-send-");
+        sendExecutor.setDaemon(true);
+        sendExecutor.initialize();
+
+        Gauge.builder("fitstack.websocket.session.queue.max", sessions, s -> s.values().stream()
+                        .mapToInt(ConflatingSessionDecorator::getQueueDepth).max().orElse(0))
+                .description("Deepest outbound queue of any session right now").register(meterRegistry);
+        Gauge.builder("fitstack.websocket.session.queue.total", sessions, s -> s.values().stream()
+                        .mapToInt(ConflatingSessionDecorator::getQueueDepth).sum())
+                .description("Frames queued for all sessions right now").register(meterRegistry);
+        Gauge.builder("fitstack.websocket.sessions", sessions, Map::size)
+                .description("Open WebSocket sessions").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sendExecutor.shutdown();
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        if (!properties.getConflation().isEnabled()) {
+            return handler;
+        }
+
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                ConflatingSessionDecorator decorated =
+                        new ConflatingSessionDecorator(session, sendExecutor, limits, stats);
+                sessions.put(session.getId(), decorated);
+                super.afterConnectionEstablished(decorated);
+            }
+
+            @Override
+            public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+                super.handleMessage(sessions.getOrDefault(session.getId(), session), message);
+            }
+
+            @Override
+            public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+                super.handleTransportError(sessions.getOrDefault(session.getId(), session), exception);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                ConflatingSessionDecorator decorated = sessions.remove(session.getId());
+                if (decorated != null) {
+                    decorated.discard();
+                }
+                super.afterConnectionClosed(decorated != null ? decorated : session, closeStatus);
+            }
+        };
+    }
+}
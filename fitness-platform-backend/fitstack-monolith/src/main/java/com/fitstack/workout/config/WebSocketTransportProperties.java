@@ -0,0 +1,46 @@
+package com.fitstack.workout.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * WebSocket channel and transport limits, bound from websocket.transport.* in application.properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "websocket.transport")
+@Data
+public class WebSocketTransportProperties {
+
+    // Executors for frames from clients and frames to clients (0 keeps Spring's default)
+    private Pool inbound = new Pool();
+    private Pool outbound = new Pool();
+
+    // A client that takes longer than this to accept a send, or lets more than this
+    // many bytes back up, is disconnected
+    private int sendTimeLimitMs = 10_000;
+    private int sendBufferSizeLimit = 512 * 1024;
+
+    // Largest inbound STOMP frame
+    private int messageSizeLimit = 64 * 1024;
+
+    private Conflation conflation = new Conflation();
+
+    @Data
+    public static class Pool {
+        private int corePoolSize;
+        private int maxPoolSize;
+        private int queueCapacity;
+    }
+
+    @Data
+    public static class Conflation {
+        private boolean enabled = true;
+        // Threads kept for writing queued frames to sockets, shared by all sessions
+        private int sendThreads = 4;
+        // Extra threads are started while sends are blocked on slow sockets, up to this many
+        private int maxSendThreads = 64;
+        // Queued frames per session before it counts as a slow consumer and is closed
+        private int maxQueuedMessages = 500;
+    }
+}
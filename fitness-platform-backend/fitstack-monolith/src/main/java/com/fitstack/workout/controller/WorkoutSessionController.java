@@ -54,6 +54,20 @@ public class WorkoutSessionController {
         return new ResponseEntity<>(set, HttpStatus.CREATED);
     }
 
+    /**
+     * Log several sets at once, e.g. when an offline client syncs a workout.
+     * Returns one result per set; sets with an already-logged clientId are
+     * reported as duplicates rather than logged again.
+     */
+    @PostMapping("/sessions/{id}/sets:batch")
+    public ResponseEntity<BatchLogSetsResponse> logSets(
+            HttpServletRequest request,
+            @PathVariable Long id,
+            @Valid @RequestBody BatchLogSetsRequest batchRequest) {
+        Long userId = getUserId(request);
+        return ResponseEntity.ok(sessionService.logSets(userId, id, batchRequest));
+    }
+
     @PutMapping("/sessions/{id}/complete")
     public ResponseEntity<WorkoutSessionDto> completeSession(
             HttpServletRequest request,
@@ -69,6 +83,20 @@ public class WorkoutSessionController {
         return ResponseEntity.ok(sessionService.getHistory(userId));
     }
 
+    /**
+     * Cursor-paginated history, newest first. Omit {@code cursor} for the first
+     * page; {@code summary=true} leaves out the sets.
+     */
+    @GetMapping("/history/page")
+    public ResponseEntity<WorkoutHistoryPage> getHistoryPage(
+            HttpServletRequest request,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean summary) {
+        Long userId = getUserId(request);
+        return ResponseEntity.ok(sessionService.getHistoryPage(userId, cursor, size, summary));
+    }
+
     private Long getUserId(HttpServletRequest request) {
         String userIdHeader = request.getHeader("X-User-Id");
         if (userIdHeader != null) {
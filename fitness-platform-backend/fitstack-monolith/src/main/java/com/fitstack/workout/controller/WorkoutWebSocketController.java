@@ -1,15 +1,18 @@
 package com.fitstack.workout.controller;
 
+import com.fitstack.workout.dto.ReplayResponse;
 import com.fitstack.workout.dto.RestTimerMessage;
 import com.fitstack.workout.dto.SetCompleteMessage;
 import com.fitstack.workout.dto.WebSocketMessage;
 import com.fitstack.workout.dto.WorkoutSetDto;
 import com.fitstack.workout.service.RestTimerService;
+import com.fitstack.workout.service.WorkoutStreamService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
 
 @Controller
@@ -17,7 +20,7 @@ import org.springframework.stereotype.Controller;
 @Slf4j
 public class WorkoutWebSocketController {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final WorkoutStreamService workoutStreamService;
     private final RestTimerService restTimerService;
 
     @MessageMapping("/workout/{sessionId}/set-complete")
@@ -29,12 +32,7 @@ public class WorkoutWebSocketController {
                 sessionId, setMessage.getExerciseId(), setMessage.getSetNumber());
         
         // Broadcast set completion to all subscribers
-        WebSocketMessage<SetCompleteMessage> wsMessage = WebSocketMessage.of(
-                WebSocketMessage.MessageType.SET_COMPLETE, 
-                setMessage, 
-                sessionId
-        );
-        messagingTemplate.convertAndSend("/topic/workout/" + sessionId, wsMessage);
+        workoutStreamService.publish(sessionId, WebSocketMessage.MessageType.SET_COMPLETE, setMessage);
         
         // Start rest timer if rest time is specified
         if (setMessage.getRestTimeSeconds() != null && setMessage.getRestTimeSeconds() > 0) {
@@ -61,6 +59,26 @@ public class WorkoutWebSocketController {
         );
     }
 
+    @MessageMapping("/workout/{sessionId}/pause-timer")
+    public void handlePauseTimer(@DestinationVariable Long sessionId) {
+        restTimerService.pauseRestTimer(sessionId);
+    }
+
+    @MessageMapping("/workout/{sessionId}/resume-timer")
+    public void handleResumeTimer(@DestinationVariable Long sessionId) {
+        restTimerService.resumeRestTimer(sessionId);
+    }
+
+    @MessageMapping("/workout/{sessionId}/adjust-timer")
+    public void handleAdjustTimer(
+            @DestinationVariable Long sessionId,
+            RestTimerMessage timerMessage
+    ) {
+        if (timerMessage.getAdjustSeconds() != null && timerMessage.getAdjustSeconds() != 0) {
+            restTimerService.adjustRestTimer(sessionId, timerMessage.getAdjustSeconds());
+        }
+    }
+
     @MessageMapping("/workout/{sessionId}/stop-timer")
     public void handleStopTimer(@DestinationVariable Long sessionId) {
         log.info("Stopping rest timer for session {}", sessionId);
@@ -72,21 +90,27 @@ public class WorkoutWebSocketController {
                 .active(false)
                 .remainingSeconds(0)
                 .build();
-        WebSocketMessage<RestTimerMessage> wsMessage = WebSocketMessage.of(
-                WebSocketMessage.MessageType.REST_TIMER_END,
-                endMessage,
-                sessionId
-        );
-        messagingTemplate.convertAndSend("/topic/workout/" + sessionId, wsMessage);
+        workoutStreamService.publish(sessionId, WebSocketMessage.MessageType.REST_TIMER_END, endMessage);
+    }
+
+    /**
+     * Catch-up for a reconnecting client. Subscribing to /app/workout/{sessionId}/replay
+     * with the last seen {@code last-seq} and {@code stream-id} headers returns the
+     * missed messages to that subscriber only.
+     */
+    @SubscribeMapping("/workout/{sessionId}/replay")
+    public ReplayResponse handleReplay(
+            @DestinationVariable Long sessionId,
+            @Header(name = "last-seq", required = false) Long lastSeq,
+            @Header(name = "stream-id", required = false) Long streamId
+    ) {
+        ReplayResponse replay = workoutStreamService.replay(sessionId, streamId, lastSeq);
+        log.debug("Replaying {} messages for session {} after seq {} (complete: {})",
+                replay.getMessages().size(), sessionId, lastSeq, replay.isComplete());
+        return replay;
     }
 
     public void broadcastSetComplete(Long sessionId, WorkoutSetDto setDto) {
-        WebSocketMessage<WorkoutSetDto> wsMessage = WebSocketMessage.of(
-                WebSocketMessage.MessageType.SET_COMPLETE,
-                setDto,
-                sessionId
-        );
-        messagingTemplate.convertAndSend("/topic/workout/" + sessionId, wsMessage);
+        workoutStreamService.publish(sessionId, WebSocketMessage.MessageType.SET_COMPLETE, setDto);
     }
 }
-
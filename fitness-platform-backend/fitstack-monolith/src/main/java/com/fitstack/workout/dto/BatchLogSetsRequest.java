@@ -0,0 +1,21 @@
+package com.fitstack.workout.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchLogSetsRequest {
+    @NotEmpty(message = "At least one set is required")
+    @Size(max = 200, message = "At most 200 sets per batch")
+    private List<@Valid LogSetRequest> sets;
+}
@@ -0,0 +1,41 @@
+package com.fitstack.workout.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch set upload, one result per submitted set in request order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchLogSetsResponse {
+    private Long sessionId;
+    private int created;
+    private int duplicates;
+    private int rejected;
+    private List<SetResult> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SetResult {
+        private int index;
+        private String clientId;
+        private Status status;
+        private WorkoutSetDto set; // null when rejected
+        private String error;
+    }
+
+    public enum Status {
+        CREATED,
+        DUPLICATE, // clientId already logged; set is the existing one
+        REJECTED
+    }
+}
@@ -0,0 +1,23 @@
+package com.fitstack.workout.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One exercise's totals for one training day, aggregated in the query
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExerciseDayVolume {
+    private LocalDate day;
+    private String exerciseName;
+    private Long setCount;
+    private Long totalReps;
+    private BigDecimal volume; // weight x reps
+    private BigDecimal maxWeight;
+}
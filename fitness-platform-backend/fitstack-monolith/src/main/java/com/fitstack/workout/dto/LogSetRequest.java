@@ -2,6 +2,7 @@ package com.fitstack.workout.dto;
 
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -27,5 +28,9 @@ public class LogSetRequest {
 
     @NotNull(message = "Weight used is required")
     private BigDecimal weightUsed;
+
+    // Optional idempotency key, unique within the session
+    @Size(max = 64, message = "Client ID must be at most 64 characters")
+    private String clientId;
 }
 
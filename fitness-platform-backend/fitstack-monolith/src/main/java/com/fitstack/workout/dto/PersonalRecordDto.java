@@ -19,7 +19,8 @@ public class PersonalRecordDto {
     private BigDecimal maxWeight;
     private Integer maxReps;
     private BigDecimal maxVolume; // max single set volume (weight x reps)
-    private BigDecimal estimatedOneRepMax; // Brzycki formula
+    private BigDecimal estimatedOneRepMax; // best Brzycki estimate over all sets
+    private LocalDateTime estimatedOneRepMaxAt;
     private LocalDateTime achievedAt;
     private Boolean isRecent; // achieved in last 30 days
 }
@@ -0,0 +1,25 @@
+package com.fitstack.workout.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Messages a reconnecting client missed. When {@code complete} is false the
+ * gap can't be filled from the replay buffer and the client should reload the
+ * session over REST instead.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReplayResponse {
+    private Long sessionId;
+    private Long streamId;
+    private Long latestSeq;
+    private boolean complete;
+    private List<WebSocketMessage<?>> messages;
+}
@@ -16,5 +16,13 @@ public class RestTimerMessage {
     private boolean active;
     private Long exerciseId;
     private Integer setNumber;
+
+    // Deadline protocol: absolute end time and the server clock it was computed against (epoch ms)
+    private Long deadline;
+    private Long serverTime;
+    private boolean paused;
+
+    // Inbound only: seconds to add to (or, if negative, take off) a running timer
+    private Integer adjustSeconds;
 }
 
@@ -18,6 +18,7 @@ public class VolumeProgressionDto {
     private BigDecimal totalVolume; // weight x reps
     private Integer totalSets;
     private Integer totalReps;
+    private BigDecimal maxWeight; // heaviest set of the day
     private Map<String, BigDecimal> exerciseBreakdown; // exerciseName -> volume
 }
 
@@ -15,11 +15,19 @@ public class WebSocketMessage<T> {
     private Long sessionId;
     private Long timestamp;
 
+    // Replay position: sequence within the session's stream, and the stream it belongs to.
+    // Null for transient messages (timer ticks and syncs), which are never replayed.
+    private Long seq;
+    private Long streamId;
+
     public enum MessageType {
         SET_COMPLETE,
         REST_TIMER_START,
         REST_TIMER_TICK,
         REST_TIMER_END,
+        REST_TIMER_PAUSE,
+        REST_TIMER_ADJUST,
+        REST_TIMER_SYNC,
         SESSION_UPDATE
     }
 
@@ -0,0 +1,21 @@
+package com.fitstack.workout.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of workout history, newest first. Pass {@code nextCursor} back to
+ * get the following page; it is null on the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkoutHistoryPage {
+    private List<WorkoutSessionDto> sessions;
+    private String nextCursor;
+}
@@ -21,5 +21,6 @@ public class WorkoutSetDto {
     private Integer repsCompleted;
     private BigDecimal weightUsed;
     private LocalDateTime completedAt;
+    private String clientId;
 }
 
@@ -0,0 +1,62 @@
+package com.fitstack.workout.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Completed-session totals per user, exercise and day the session started.
+ * Duration is the time from the exercise's first to its last set in each
+ * session, summed. Maintained by {@code TrainingRollupRepository}; never written through JPA.
+ */
+@Entity
+@Table(name = "daily_exercise_rollups", uniqueConstraints = @UniqueConstraint(name = "uk_daily_exercise_rollups_user_exercise_day", columnNames = {
+        "user_id", "exercise_id", "day" }), indexes = @Index(name = "idx_daily_exercise_rollups_user_day", columnList = "user_id, day"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyExerciseRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "daily_exercise_rollups_id_seq")
+    @SequenceGenerator(name = "daily_exercise_rollups_id_seq", sequenceName = "daily_exercise_rollups_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "exercise_id", nullable = false)
+    private Exercise exercise;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(name = "session_count", nullable = false)
+    private Integer sessionCount;
+
+    @Column(name = "set_count", nullable = false)
+    private Integer setCount;
+
+    @Column(name = "total_reps", nullable = false)
+    private Long totalReps;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal tonnage;
+
+    @Column(name = "max_weight", precision = 6, scale = 2)
+    private BigDecimal maxWeight;
+
+    @Column(name = "duration_seconds", nullable = false)
+    private Long durationSeconds;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class Exercise {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exercises_id_seq")
+    @SequenceGenerator(name = "exercises_id_seq", sequenceName = "exercises_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 255)
@@ -0,0 +1,74 @@
+package com.fitstack.workout.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running per-user, per-exercise bests and the most recent completed session,
+ * folded in as each session completes. Only completed sessions count.
+ */
+@Entity
+@Table(name = "user_exercise_stats", uniqueConstraints = @UniqueConstraint(name = "uk_user_exercise_stats_user_exercise", columnNames = {
+        "user_id", "exercise_id" }))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserExerciseStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_exercise_stats_id_seq")
+    @SequenceGenerator(name = "user_exercise_stats_id_seq", sequenceName = "user_exercise_stats_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "exercise_id", nullable = false)
+    private Exercise exercise;
+
+    @Column(name = "max_weight", precision = 6, scale = 2)
+    private BigDecimal maxWeight;
+
+    @Column(name = "max_weight_at")
+    private LocalDateTime maxWeightAt;
+
+    @Column(name = "max_reps")
+    private Integer maxReps;
+
+    // Best single set, weight x reps
+    @Column(name = "max_volume", precision = 10, scale = 2)
+    private BigDecimal maxVolume;
+
+    // Brzycki estimate of the best single set
+    @Column(name = "best_one_rep_max", precision = 8, scale = 2)
+    private BigDecimal bestOneRepMax;
+
+    @Column(name = "best_one_rep_max_at")
+    private LocalDateTime bestOneRepMaxAt;
+
+    @Column(name = "last_session_id")
+    private Long lastSessionId;
+
+    @Column(name = "last_session_at")
+    private LocalDateTime lastSessionAt;
+
+    @Column(name = "last_session_sets")
+    private Integer lastSessionSets;
+
+    @Column(name = "last_session_avg_weight", precision = 6, scale = 2)
+    private BigDecimal lastSessionAvgWeight;
+
+    @Column(name = "last_session_avg_reps")
+    private Integer lastSessionAvgReps;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
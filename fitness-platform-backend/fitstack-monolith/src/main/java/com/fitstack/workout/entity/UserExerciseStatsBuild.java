@@ -0,0 +1,30 @@
+package com.fitstack.workout.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a user whose user_exercise_stats were built from their whole history,
+ * so later sessions can be folded in. Maintained by
+ * {@code UserExerciseStatsBatchRepository}; never written through JPA.
+ */
+@Entity
+@Table(name = "user_exercise_stats_builds")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserExerciseStatsBuild {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "built_at", nullable = false)
+    private LocalDateTime builtAt;
+}
@@ -0,0 +1,54 @@
+package com.fitstack.workout.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Completed-session totals per user and ISO week (weeks start on Monday).
+ * Maintained by {@code TrainingRollupRepository}; never written through JPA.
+ */
+@Entity
+@Table(name = "weekly_training_rollups", uniqueConstraints = @UniqueConstraint(name = "uk_weekly_training_rollups_user_week", columnNames = {
+        "user_id", "week_start" }))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WeeklyTrainingRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "weekly_training_rollups_id_seq")
+    @SequenceGenerator(name = "weekly_training_rollups_id_seq", sequenceName = "weekly_training_rollups_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "week_start", nullable = false)
+    private LocalDate weekStart;
+
+    @Column(name = "session_count", nullable = false)
+    private Integer sessionCount;
+
+    @Column(name = "set_count", nullable = false)
+    private Integer setCount;
+
+    @Column(name = "total_reps", nullable = false)
+    private Long totalReps;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal tonnage;
+
+    @Column(name = "duration_seconds", nullable = false)
+    private Long durationSeconds;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
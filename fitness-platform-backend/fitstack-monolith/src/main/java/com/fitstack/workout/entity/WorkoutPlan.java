@@ -25,7 +25,8 @@ import java.util.List;
 public class WorkoutPlan {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "workout_plans_id_seq")
+    @SequenceGenerator(name = "workout_plans_id_seq", sequenceName = "workout_plans_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -22,7 +22,8 @@ import java.util.List;
 public class WorkoutPlanDay {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "workout_plan_days_id_seq")
+    @SequenceGenerator(name = "workout_plan_days_id_seq", sequenceName = "workout_plan_days_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
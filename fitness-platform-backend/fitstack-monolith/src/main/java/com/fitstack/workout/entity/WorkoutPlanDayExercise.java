@@ -18,7 +18,8 @@ import lombok.NoArgsConstructor;
 public class WorkoutPlanDayExercise {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "workout_plan_day_exercises_id_seq")
+    @SequenceGenerator(name = "workout_plan_day_exercises_id_seq", sequenceName = "workout_plan_day_exercises_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
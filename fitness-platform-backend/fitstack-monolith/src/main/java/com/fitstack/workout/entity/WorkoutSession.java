@@ -11,7 +11,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "workout_sessions")
+@Table(name = "workout_sessions", indexes = {
+        @Index(name = "idx_workout_sessions_user_history", columnList = "user_id, started_at DESC, id DESC")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -19,7 +21,8 @@ import java.util.List;
 public class WorkoutSession {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "workout_sessions_id_seq")
+    @SequenceGenerator(name = "workout_sessions_id_seq", sequenceName = "workout_sessions_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
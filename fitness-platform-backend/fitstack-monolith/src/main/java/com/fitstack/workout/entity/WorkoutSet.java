@@ -10,7 +10,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "workout_sets")
+@Table(name = "workout_sets", uniqueConstraints = @UniqueConstraint(name = "uk_workout_sets_session_client", columnNames = {
+        "session_id", "client_id" }))
 @Data
 @Builder
 @NoArgsConstructor
@@ -18,7 +19,8 @@ import java.time.LocalDateTime;
 public class WorkoutSet {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "workout_sets_id_seq")
+    @SequenceGenerator(name = "workout_sets_id_seq", sequenceName = "workout_sets_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -40,5 +42,9 @@ public class WorkoutSet {
 
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
+
+    // Optional client-generated ID so replayed uploads don't log the set twice
+    @Column(name = "client_id", length = 64)
+    private String clientId;
 }
 
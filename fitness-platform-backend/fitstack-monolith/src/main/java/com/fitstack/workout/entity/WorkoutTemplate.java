@@ -21,7 +21,8 @@ import java.util.List;
 public class WorkoutTemplate {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "workout_templates_id_seq")
+    @SequenceGenerator(name = "workout_templates_id_seq", sequenceName = "workout_templates_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
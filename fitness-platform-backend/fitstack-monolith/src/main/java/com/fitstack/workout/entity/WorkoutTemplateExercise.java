@@ -17,7 +17,8 @@ import java.math.BigDecimal;
 public class WorkoutTemplateExercise {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "workout_template_exercises_id_seq")
+    @SequenceGenerator(name = "workout_template_exercises_id_seq", sequenceName = "workout_template_exercises_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,29 @@
+package com.fitstack.workout.repository;
+
+import com.fitstack.workout.dto.ExerciseDayVolume;
+import com.fitstack.workout.entity.DailyExerciseRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyExerciseRollupRepository extends JpaRepository<DailyExerciseRollup, Long> {
+
+    @Query("SELECT new com.fitstack.workout.dto.ExerciseDayVolume(r.day, e.name, SUM(r.setCount), SUM(r.totalReps), "
+            + "SUM(r.tonnage), MAX(r.maxWeight)) FROM DailyExerciseRollup r JOIN r.exercise e "
+            + "WHERE r.userId = :userId AND r.day BETWEEN :from AND :to "
+            + "GROUP BY r.day, e.name ORDER BY r.day ASC")
+    List<ExerciseDayVolume> findVolumeByUserIdAndDayBetween(@Param("userId") Long userId,
+            @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new com.fitstack.workout.dto.ExerciseDayVolume(r.day, e.name, SUM(r.setCount), SUM(r.totalReps), "
+            + "SUM(r.tonnage), MAX(r.maxWeight)) FROM DailyExerciseRollup r JOIN r.exercise e "
+            + "WHERE r.userId = :userId AND e.id = :exerciseId AND r.day BETWEEN :from AND :to "
+            + "GROUP BY r.day, e.name ORDER BY r.day ASC")
+    List<ExerciseDayVolume> findVolumeByUserIdAndExerciseIdAndDayBetween(@Param("userId") Long userId,
+            @Param("exerciseId") Long exerciseId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface ExerciseRepository extends JpaRepository<Exercise, Long> {
@@ -34,6 +35,9 @@ public interface ExerciseRepository extends JpaRepository<Exercise, Long> {
     @Query("SELECT DISTINCT e.equipment FROM Exercise e WHERE e.equipment IS NOT NULL ORDER BY e.equipment")
     List<String> findDistinctEquipment();
 
+    @Query("SELECT LOWER(e.name) FROM Exercise e")
+    Set<String> findAllLowercaseNames();
+
     Optional<Exercise> findByExternalId(String externalId);
 
     boolean existsByExternalId(String externalId);
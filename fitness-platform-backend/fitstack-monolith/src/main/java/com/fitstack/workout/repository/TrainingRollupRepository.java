@@ -0,0 +1,135 @@
+package com.fitstack.workout.repository;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Writes weekly_training_rollups and daily_exercise_rollups. Every write is a
+ * single INSERT ... SELECT that aggregates completed sessions in Postgres and
+ * adds the totals onto existing rows, so completing a session, rebuilding a
+ * user and backfilling everyone share the same statements and differ only in
+ * which sessions they select.
+ *
+ * Adding is not idempotent, so rewrites take an exclusive advisory lock and
+ * incremental adds a shared one: a session completing during a backfill is
+ * either in the backfill's snapshot or added after it, never both. The same
+ * holds per user between rebuilding a user and adding one of their sessions.
+ * Must run inside a workouts transaction; the locks are transaction-scoped.
+ */
+@Repository
+public class TrainingRollupRepository {
+
+    private static final long ROLLUP_LOCK_KEY = 0x524f4c4c5550L; // "ROLLUP"
+    // Two-key advisory locks live apart from single-key ones: (class, user)
+    private static final int USER_LOCK_CLASS = 0x524f4c4c; // "ROLL"
+
+    private static final String WEEKLY_SQL = "INSERT INTO weekly_training_rollups AS r "
+            + "(id, user_id, week_start, session_count, set_count, total_reps, tonnage, duration_seconds, updated_at) "
+            + "SELECT nextval('weekly_training_rollups_id_seq'), s.user_id, CAST(date_trunc('week', s.started_at) AS date), "
+            + "COUNT(*), COALESCE(SUM(st.set_count), 0), COALESCE(SUM(st.total_reps), 0), COALESCE(SUM(st.tonnage), 0), "
+            + "CAST(COALESCE(SUM(EXTRACT(EPOCH FROM s.completed_at - s.started_at)), 0) AS bigint), now() "
+            + "FROM workout_sessions s "
+            + "LEFT JOIN LATERAL (SELECT COUNT(*) AS set_count, SUM(ws.reps_completed) AS total_reps, "
+            + "SUM(ws.weight_used * ws.reps_completed) AS tonnage "
+            + "FROM workout_sets ws WHERE ws.session_id = s.id) st ON true "
+            + "WHERE s.status = 'COMPLETED' AND %s "
+            + "GROUP BY s.user_id, CAST(date_trunc('week', s.started_at) AS date) "
+            + "ON CONFLICT (user_id, week_start) DO UPDATE SET "
+            + "session_count = r.session_count + EXCLUDED.session_count, "
+            + "set_count = r.set_count + EXCLUDED.set_count, "
+            + "total_reps = r.total_reps + EXCLUDED.total_reps, "
+            + "tonnage = r.tonnage + EXCLUDED.tonnage, "
+            + "duration_seconds = r.duration_seconds + EXCLUDED.duration_seconds, "
+            + "updated_at = now()";
+
+    private static final String DAILY_SQL = "INSERT INTO daily_exercise_rollups AS r "
+            + "(id, user_id, exercise_id, day, session_count, set_count, total_reps, tonnage, max_weight, "
+            + "duration_seconds, updated_at) "
+            + "SELECT nextval('daily_exercise_rollups_id_seq'), e.user_id, e.exercise_id, e.day, "
+            + "COUNT(*), SUM(e.set_count), SUM(e.total_reps), SUM(e.tonnage), MAX(e.max_weight), "
+            + "CAST(SUM(e.duration_seconds) AS bigint), now() "
+            + "FROM (SELECT s.user_id, ws.exercise_id, CAST(s.started_at AS date) AS day, COUNT(*) AS set_count, "
+            + "COALESCE(SUM(ws.reps_completed), 0) AS total_reps, "
+            + "COALESCE(SUM(ws.weight_used * ws.reps_completed), 0) AS tonnage, MAX(ws.weight_used) AS max_weight, "
+            + "COALESCE(EXTRACT(EPOCH FROM MAX(ws.completed_at) - MIN(ws.completed_at)), 0) AS duration_seconds "
+            + "FROM workout_sessions s JOIN workout_sets ws ON ws.session_id = s.id "
+            + "WHERE s.status = 'COMPLETED' AND %s "
+            + "GROUP BY s.id, s.user_id, ws.exercise_id, CAST(s.started_at AS date)) e "
+            + "GROUP BY e.user_id, e.exercise_id, e.day "
+            + "ON CONFLICT (user_id, exercise_id, day) DO UPDATE SET "
+            + "session_count = r.session_count + EXCLUDED.session_count, "
+            + "set_count = r.set_count + EXCLUDED.set_count, "
+            + "total_reps = r.total_reps + EXCLUDED.total_reps, "
+            + "tonnage = r.tonnage + EXCLUDED.tonnage, "
+            + "max_weight = GREATEST(r.max_weight, EXCLUDED.max_weight), "
+            + "duration_seconds = r.duration_seconds + EXCLUDED.duration_seconds, "
+            + "updated_at = now()";
+
+    // Any completed session whose week has no rollup means the backfill hasn't run;
+    // weighted volume without a max weight means rows predate the max_weight column
+    private static final String MISSING_SQL = "SELECT EXISTS (SELECT 1 FROM workout_sessions s "
+            + "WHERE s.status = 'COMPLETED' AND NOT EXISTS (SELECT 1 FROM weekly_training_rollups r "
+            + "WHERE r.user_id = s.user_id AND r.week_start = CAST(date_trunc('week', s.started_at) AS date))) "
+            + "OR EXISTS (SELECT 1 FROM daily_exercise_rollups WHERE max_weight IS NULL AND tonnage > 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TrainingRollupRepository(@Qualifier("workoutsJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Add one completed session to its user's rollups
+     */
+    public void addSession(Long userId, Long sessionId) {
+        lock(false);
+        lockUser(userId, false);
+        jdbcTemplate.update(WEEKLY_SQL.formatted("s.id = ?"), sessionId);
+        jdbcTemplate.update(DAILY_SQL.formatted("s.id = ?"), sessionId);
+    }
+
+    /**
+     * Recompute a user's rollups from their completed sessions
+     */
+    public void rebuildUser(Long userId) {
+        lock(false);
+        lockUser(userId, true);
+        deleteByUserId(userId);
+        jdbcTemplate.update(WEEKLY_SQL.formatted("s.user_id = ?"), userId);
+        jdbcTemplate.update(DAILY_SQL.formatted("s.user_id = ?"), userId);
+    }
+
+    /**
+     * Recompute every user's rollups if any completed session isn't covered
+     *
+     * @return whether a backfill ran
+     */
+    public boolean backfillIfMissing() {
+        lock(true);
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(MISSING_SQL, Boolean.class))) {
+            return false;
+        }
+        jdbcTemplate.update("DELETE FROM weekly_training_rollups");
+        jdbcTemplate.update("DELETE FROM daily_exercise_rollups");
+        jdbcTemplate.update(WEEKLY_SQL.formatted("TRUE"));
+        jdbcTemplate.update(DAILY_SQL.formatted("TRUE"));
+        return true;
+    }
+
+    public void deleteByUserId(Long userId) {
+        jdbcTemplate.update("DELETE FROM weekly_training_rollups WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM daily_exercise_rollups WHERE user_id = ?", userId);
+    }
+
+    private void lock(boolean exclusive) {
+        jdbcTemplate.execute("SELECT " + (exclusive ? "pg_advisory_xact_lock" : "pg_advisory_xact_lock_shared")
+                + "(" + ROLLUP_LOCK_KEY + ")");
+    }
+
+    private void lockUser(Long userId, boolean exclusive) {
+        // Users sharing a hash only serialize with each other
+        jdbcTemplate.execute("SELECT " + (exclusive ? "pg_advisory_xact_lock" : "pg_advisory_xact_lock_shared")
+                + "(" + USER_LOCK_CLASS + ", " + Long.hashCode(userId) + ")");
+    }
+}
@@ -0,0 +1,107 @@
+package com.fitstack.workout.repository;
+
+import com.fitstack.workout.entity.UserExerciseStats;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Folds per-session exercise stats into user_exercise_stats with one batched
+ * upsert. The merge happens in the statement, so sessions of the same user
+ * completing at once can't overwrite each other's bests. Also keeps the
+ * per-user marker saying the stats were built from the user's whole history.
+ */
+@Repository
+public class UserExerciseStatsBatchRepository {
+
+    private static final String UPSERT_SQL = "INSERT INTO user_exercise_stats AS s "
+            + "(id, user_id, exercise_id, max_weight, max_weight_at, max_reps, max_volume, best_one_rep_max, "
+            + "best_one_rep_max_at, last_session_id, last_session_at, last_session_sets, last_session_avg_weight, "
+            + "last_session_avg_reps, updated_at) "
+            + "VALUES (nextval('user_exercise_stats_id_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now()) "
+            + "ON CONFLICT (user_id, exercise_id) DO UPDATE SET "
+            + "max_weight_at = CASE WHEN s.max_weight IS NULL OR EXCLUDED.max_weight > s.max_weight "
+            + "THEN EXCLUDED.max_weight_at ELSE s.max_weight_at END, "
+            + "max_weight = GREATEST(s.max_weight, EXCLUDED.max_weight), "
+            + "max_reps = GREATEST(s.max_reps, EXCLUDED.max_reps), "
+            + "max_volume = GREATEST(s.max_volume, EXCLUDED.max_volume), "
+            + "best_one_rep_max_at = CASE WHEN s.best_one_rep_max IS NULL OR EXCLUDED.best_one_rep_max > s.best_one_rep_max "
+            + "THEN EXCLUDED.best_one_rep_max_at ELSE s.best_one_rep_max_at END, "
+            + "best_one_rep_max = GREATEST(s.best_one_rep_max, EXCLUDED.best_one_rep_max), "
+            + lastSession("last_session_id") + ", "
+            + lastSession("last_session_sets") + ", "
+            + lastSession("last_session_avg_weight") + ", "
+            + lastSession("last_session_avg_reps") + ", "
+            + "last_session_at = GREATEST(s.last_session_at, EXCLUDED.last_session_at), "
+            + "updated_at = now()";
+
+    private static final String MARK_BUILT_SQL = "INSERT INTO user_exercise_stats_builds (user_id, built_at) "
+            + "VALUES (?, now()) ON CONFLICT (user_id) DO UPDATE SET built_at = now()";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserExerciseStatsBatchRepository(@Qualifier("workoutsJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Merge stats into the stored ones: bests are kept, and the last-session
+     * fields are replaced only by a session at least as recent.
+     */
+    public void upsertAll(List<UserExerciseStats> stats) {
+        if (stats.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                UserExerciseStats s = stats.get(i);
+                ps.setLong(1, s.getUserId());
+                ps.setLong(2, s.getExercise().getId());
+                ps.setBigDecimal(3, s.getMaxWeight());
+                ps.setTimestamp(4, timestamp(s.getMaxWeightAt()));
+                ps.setObject(5, s.getMaxReps(), Types.INTEGER);
+                ps.setBigDecimal(6, s.getMaxVolume());
+                ps.setBigDecimal(7, s.getBestOneRepMax());
+                ps.setTimestamp(8, timestamp(s.getBestOneRepMaxAt()));
+                ps.setObject(9, s.getLastSessionId(), Types.BIGINT);
+                ps.setTimestamp(10, timestamp(s.getLastSessionAt()));
+                ps.setObject(11, s.getLastSessionSets(), Types.INTEGER);
+                ps.setBigDecimal(12, s.getLastSessionAvgWeight());
+                ps.setObject(13, s.getLastSessionAvgReps(), Types.INTEGER);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return stats.size();
+            }
+        });
+    }
+
+    public boolean isBuilt(Long userId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM user_exercise_stats_builds WHERE user_id = ?)", Boolean.class, userId));
+    }
+
+    public void markBuilt(Long userId) {
+        jdbcTemplate.update(MARK_BUILT_SQL, userId);
+    }
+
+    private static String lastSession(String column) {
+        return column + " = CASE WHEN s.last_session_at IS NULL OR EXCLUDED.last_session_at >= s.last_session_at "
+                + "THEN EXCLUDED." + column + " ELSE s." + column + " END";
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.fitstack.workout.repository;
+
+import com.fitstack.workout.entity.UserExerciseStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface UserExerciseStatsRepository extends JpaRepository<UserExerciseStats, Long> {
+
+    @Query("SELECT s FROM UserExerciseStats s JOIN FETCH s.exercise WHERE s.userId = :userId")
+    List<UserExerciseStats> findWithExerciseByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Transactional("workoutsTransactionManager")
+    @Query("DELETE FROM UserExerciseStats s WHERE s.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,15 @@
+package com.fitstack.workout.repository;
+
+import com.fitstack.workout.entity.WeeklyTrainingRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface WeeklyTrainingRollupRepository extends JpaRepository<WeeklyTrainingRollup, Long> {
+
+    List<WeeklyTrainingRollup> findByUserIdAndWeekStartBetweenOrderByWeekStartAsc(Long userId, LocalDate from,
+            LocalDate to);
+}
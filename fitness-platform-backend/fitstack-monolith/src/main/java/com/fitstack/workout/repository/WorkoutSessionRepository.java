@@ -1,7 +1,10 @@
 package com.fitstack.workout.repository;
 
 import com.fitstack.workout.entity.WorkoutSession;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,6 +20,26 @@ public interface WorkoutSessionRepository extends JpaRepository<WorkoutSession,
 
         Optional<WorkoutSession> findByIdAndUserId(Long id, Long userId);
 
+        // FOR SHARE: waits for a completion in flight, and holds one off until the caller commits
+        @Lock(LockModeType.PESSIMISTIC_READ)
+        Optional<WorkoutSession> findForShareByIdAndUserId(Long id, Long userId);
+
+        // History pages, keyset-paginated on (startedAt, id) newest first
+        @Query("SELECT ws FROM WorkoutSession ws LEFT JOIN FETCH ws.template WHERE ws.userId = :userId " +
+                        "ORDER BY ws.startedAt DESC, ws.id DESC")
+        List<WorkoutSession> findHistoryPage(@Param("userId") Long userId, Limit limit);
+
+        @Query("SELECT ws FROM WorkoutSession ws LEFT JOIN FETCH ws.template WHERE ws.userId = :userId " +
+                        "AND (ws.startedAt < :startedAt OR (ws.startedAt = :startedAt AND ws.id < :id)) " +
+                        "ORDER BY ws.startedAt DESC, ws.id DESC")
+        List<WorkoutSession> findHistoryPageAfter(@Param("userId") Long userId,
+                        @Param("startedAt") LocalDateTime startedAt, @Param("id") Long id, Limit limit);
+
+        boolean existsByIdAndUserId(Long id, Long userId);
+
+        @Query("SELECT ws.id FROM WorkoutSession ws WHERE ws.userId = :userId AND ws.status = 'IN_PROGRESS'")
+        List<Long> findInProgressIdsByUserId(@Param("userId") Long userId);
+
         List<WorkoutSession> findByUserIdAndStatusOrderByStartedAtDesc(Long userId,
                         WorkoutSession.SessionStatus status);
 
@@ -0,0 +1,102 @@
+package com.fitstack.workout.repository;
+
+import com.fitstack.workout.entity.WorkoutSet;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bulk insert for workout sets, sent as one JDBC batch without going through
+ * the persistence context. IDs come from the same pooled sequence the entity
+ * uses, so they never collide with blocks Hibernate has reserved.
+ *
+ * Inserts skip rows whose (session, clientId) already exists, so concurrent
+ * uploads of the same set resolve to one row instead of a constraint violation.
+ */
+@Repository
+public class WorkoutSetBatchRepository {
+
+    private static final String INSERT_WITH_ID_SQL = "INSERT INTO workout_sets "
+            + "(id, session_id, exercise_id, set_number, reps_completed, weight_used, completed_at, client_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WorkoutSetIdAllocator idAllocator;
+
+    public WorkoutSetBatchRepository(@Qualifier("workoutsJdbcTemplate") JdbcTemplate jdbcTemplate,
+            WorkoutSetIdAllocator idAllocator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idAllocator = idAllocator;
+    }
+
+    /**
+     * Insert the given sets in one batch and assign their IDs. Must run inside
+     * a workoutsTransactionManager transaction; the sets' session and exercise
+     * must already be persisted.
+     *
+     * @return The sets that were not inserted because their session already has
+     *         a set with the same clientId (their IDs are meaningless)
+     */
+    public List<WorkoutSet> insertAll(List<WorkoutSet> sets) {
+        if (sets.isEmpty()) {
+            return List.of();
+        }
+
+        // IDs are allocated up front so inserted rows can be told apart from
+        // conflicts; batch update counts are lost to reWriteBatchedInserts
+        sets.forEach(set -> set.setId(idAllocator.nextId()));
+        insertIfAbsent(sets);
+
+        List<WorkoutSet> withClientId = sets.stream().filter(set -> set.getClientId() != null).toList();
+        if (withClientId.isEmpty()) {
+            return List.of();
+        }
+        Long[] ids = withClientId.stream().map(WorkoutSet::getId).toArray(Long[]::new);
+        Set<Long> inserted = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM workout_sets WHERE id = ANY(?)", Long.class, (Object) ids));
+        return withClientId.stream().filter(set -> !inserted.contains(set.getId())).toList();
+    }
+
+    /**
+     * Insert sets whose IDs were allocated in advance, skipping any that are
+     * already there (same ID or same session and clientId), so a flush that is
+     * retried after a partial failure doesn't duplicate rows.
+     */
+    public void insertIfAbsent(List<WorkoutSet> sets) {
+        if (sets.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_WITH_ID_SQL, new SetBinder(sets));
+    }
+
+    private record SetBinder(List<WorkoutSet> sets) implements BatchPreparedStatementSetter {
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            WorkoutSet set = sets.get(i);
+            int index = 1;
+            ps.setLong(index++, set.getId());
+            ps.setLong(index++, set.getSession().getId());
+            ps.setLong(index++, set.getExercise().getId());
+            ps.setObject(index++, set.getSetNumber(), Types.INTEGER);
+            ps.setObject(index++, set.getRepsCompleted(), Types.INTEGER);
+            ps.setBigDecimal(index++, set.getWeightUsed());
+            ps.setTimestamp(index++, set.getCompletedAt() != null ? Timestamp.valueOf(set.getCompletedAt()) : null);
+            ps.setString(index, set.getClientId());
+        }
+
+        @Override
+        public int getBatchSize() {
+            return sets.size();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.fitstack.workout.repository;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out workout set IDs ahead of the insert, for sets that are written
+ * behind. Reserves blocks from workout_sets_id_seq the same way Hibernate's
+ * pooled optimizer does, so the IDs never collide with the entity's own.
+ */
+@Component
+public class WorkoutSetIdAllocator {
+
+    // Must match allocationSize on WorkoutSet's @SequenceGenerator
+    private static final int BLOCK_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private long next;
+    private long hi = -1;
+
+    public WorkoutSetIdAllocator(@Qualifier("workoutsJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public synchronized long nextId() {
+        if (next > hi) {
+            long value = nextval();
+            if (value < BLOCK_SIZE) {
+                // A fresh sequence's first value starts a block rather than ending one; the
+                // next value ends it, as in PooledOptimizer's initial-value case
+                next = value;
+                hi = nextval();
+            } else {
+                hi = value;
+                next = hi - BLOCK_SIZE + 1;
+            }
+        }
+        return next++;
+    }
+
+    private long nextval() {
+        Long value = jdbcTemplate.queryForObject("SELECT nextval('workout_sets_id_seq')", Long.class);
+        if (value == null) {
+            throw new IllegalStateException("workout_sets_id_seq returned no value");
+        }
+        return value;
+    }
+}
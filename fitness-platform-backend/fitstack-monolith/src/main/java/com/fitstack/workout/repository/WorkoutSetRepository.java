@@ -7,7 +7,9 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface WorkoutSetRepository extends JpaRepository<WorkoutSet, Long> {
@@ -16,9 +18,16 @@ public interface WorkoutSetRepository extends JpaRepository<WorkoutSet, Long> {
 
     List<WorkoutSet> findBySessionIdAndExerciseIdOrderBySetNumberAsc(Long sessionId, Long exerciseId);
 
+    Optional<WorkoutSet> findBySessionIdAndClientId(Long sessionId, String clientId);
+
+    List<WorkoutSet> findBySessionIdAndClientIdIn(Long sessionId, Collection<String> clientIds);
+
     // Batch fetch for multiple sessions
     List<WorkoutSet> findBySessionIdIn(List<Long> sessionIds);
 
+    @Query("SELECT ws FROM WorkoutSet ws JOIN FETCH ws.exercise WHERE ws.session.id IN :sessionIds ORDER BY ws.completedAt ASC")
+    List<WorkoutSet> findWithExerciseBySessionIdIn(@Param("sessionIds") List<Long> sessionIds);
+
     // Find all sets for an exercise across all sessions for a user
     @Query("SELECT ws FROM WorkoutSet ws JOIN ws.session s WHERE s.userId = :userId AND ws.exercise.id = :exerciseId ORDER BY ws.completedAt DESC")
     List<WorkoutSet> findByUserIdAndExerciseId(@Param("userId") Long userId, @Param("exerciseId") Long exerciseId);
@@ -0,0 +1,49 @@
+package com.fitstack.workout.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Writes sets logged against active sessions to Postgres on a short interval.
+ * Only the node holding the flusher lease runs the periodic flush; sets are
+ * also flushed when a session completes and when this node shuts down.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActiveSessionFlusher {
+
+    private final ActiveSessionStore store;
+    private final ActiveSessionService activeSessionService;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${workout.active-session.flusher.lease-ms:10000}")
+    private long leaseMs;
+
+    @Scheduled(fixedDelayString = "${workout.active-session.flush-interval-ms:2000}")
+    public void flush() {
+        try {
+            if (store.tryAcquireFlusherLease(nodeId, leaseMs)) {
+                activeSessionService.flushAll();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Active session flush failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int failed = activeSessionService.flushAll();
+        if (failed > 0) {
+            log.warn("{} sessions still have unflushed sets at shutdown; they stay in the journal", failed);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.fitstack.workout.service;
+
+import com.fitstack.config.exception.BadRequestException;
+import com.fitstack.config.exception.NotFoundException;
+import com.fitstack.workout.dto.ExerciseDto;
+import com.fitstack.workout.dto.LogSetRequest;
+import com.fitstack.workout.dto.WorkoutSetDto;
+import com.fitstack.workout.entity.WorkoutSession;
+import com.fitstack.workout.entity.WorkoutSet;
+import com.fitstack.workout.repository.ExerciseRepository;
+import com.fitstack.workout.repository.WorkoutPlanDayRepository;
+import com.fitstack.workout.repository.WorkoutSessionRepository;
+import com.fitstack.workout.repository.WorkoutSetBatchRepository;
+import com.fitstack.workout.repository.WorkoutSetIdAllocator;
+import com.fitstack.workout.repository.WorkoutSetRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Logs sets against in-progress sessions without touching the workouts
+ * database on the request path.
+ *
+ * The session is read once and then served from the {@link ActiveSessionStore};
+ * exercises come from a local cache (the catalog only ever grows). A logged
+ * set gets a pre-allocated ID, goes into the store's journal and is
+ * acknowledged straight away. {@link ActiveSessionFlusher} writes pending sets
+ * to Postgres in batches; writes that depend on a session's sets flush it
+ * first, and reads add {@link #findPendingSets} to what the table holds.
+ *
+ * A flush joins the caller's transaction, if any, and trims the journal only
+ * once that commits. Completing a session updates its row and then calls
+ * {@link #end}; a set racing the completion either gets flushed with it or is
+ * rejected once the completion commits.
+ */
+@Service
+@Slf4j
+public class ActiveSessionService {
+
+    private final ActiveSessionStore store;
+    private final WorkoutSessionRepository sessionRepository;
+    private final WorkoutSetRepository setRepository;
+    private final WorkoutSetBatchRepository setBatchRepository;
+    private final WorkoutSetIdAllocator idAllocator;
+    private final ExerciseRepository exerciseRepository;
+    private final WorkoutPlanDayRepository planDayRepository;
+    private final ExerciseService exerciseService;
+    private final TransactionTemplate flushTransaction;
+    private final TransactionTemplate loadTransaction;
+    private final Cache<Long, ExerciseDto> exercises = Caffeine.newBuilder()
+            .maximumSize(5000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    public ActiveSessionService(
+            ActiveSessionStore store,
+            WorkoutSessionRepository sessionRepository,
+            WorkoutSetRepository setRepository,
+            WorkoutSetBatchRepository setBatchRepository,
+            WorkoutSetIdAllocator idAllocator,
+            ExerciseRepository exerciseRepository,
+            WorkoutPlanDayRepository planDayRepository,
+            ExerciseService exerciseService,
+            @Qualifier("workoutsTransactionManager") PlatformTransactionManager transactionManager) {
+        this.store = store;
+        this.sessionRepository = sessionRepository;
+        this.setRepository = setRepository;
+        this.setBatchRepository = setBatchRepository;
+        this.idAllocator = idAllocator;
+        this.exerciseRepository = exerciseRepository;
+        this.planDayRepository = planDayRepository;
+        this.exerciseService = exerciseService;
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        // Not read-only: the session row is read FOR SHARE
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    public WorkoutSetDto logSet(Long userId, Long sessionId, LogSetRequest request) {
+        requireActive(userId, sessionId);
+
+        if (request.getClientId() != null) {
+            Optional<WorkoutSetDto> existing = findByClientId(sessionId, request.getClientId());
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+        }
+
+        ExerciseDto exercise = exercise(request.getExerciseId());
+        ActiveSessionStore.PendingSet set = new ActiveSessionStore.PendingSet(
+                idAllocator.nextId(),
+                sessionId,
+                exercise.getId(),
+                request.getSetNumber(),
+                request.getRepsCompleted(),
+                request.getWeightUsed(),
+                LocalDateTime.now(),
+                request.getClientId());
+        Optional<Long> recorded;
+        while ((recorded = store.appendPending(set)).isEmpty()) {
+            // Ended since the check above: the reload waits for the completion and rejects the set
+            requireActive(userId, sessionId);
+        }
+        Long recordedId = recorded.get();
+        if (!recordedId.equals(set.id())) {
+            // A concurrent retry with the same client ID got there first; the store keeps one of them
+            return findByClientId(sessionId, request.getClientId())
+                    .orElseThrow(() -> new IllegalStateException("Set " + recordedId + " of session "
+                            + sessionId + " is neither pending nor stored"));
+        }
+        return toDto(set, exercise);
+    }
+
+    /**
+     * Write a session's pending sets to the database, in the caller's transaction
+     * if there is one, and drop them from the journal once that commits
+     */
+    public void flush(Long sessionId) {
+        List<ActiveSessionStore.PendingSet> pending = store.findPending(sessionId);
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> setIds = pending.stream().map(ActiveSessionStore.PendingSet::id).toList();
+
+        try {
+            flushTransaction.executeWithoutResult(status -> {
+                setBatchRepository.insertIfAbsent(pending.stream()
+                        .map(this::toEntity)
+                        .toList());
+                // A rolled-back caller leaves the sets in the journal for the next flush
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        store.removePending(sessionId, setIds);
+                        log.debug("Flushed {} sets for session {}", setIds.size(), sessionId);
+                    }
+                });
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (sessionRepository.existsById(sessionId)) {
+                throw e;
+            }
+            log.warn("Dropping {} pending sets for deleted session {}", pending.size(), sessionId);
+            store.removePending(sessionId, setIds);
+        }
+    }
+
+    /**
+     * Flush every session with pending sets; a failing session doesn't hold up the others
+     *
+     * @return the number of sessions that failed to flush
+     */
+    public int flushAll() {
+        int failed = 0;
+        for (Long sessionId : store.findSessionsWithPending()) {
+            try {
+                flush(sessionId);
+            } catch (RuntimeException e) {
+                failed++;
+                log.warn("Flushing pending sets for session {} failed: {}", sessionId, e.getMessage());
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Stop taking sets for a session that is no longer in progress, then flush
+     * the ones already taken. Called after the session row has been updated, so
+     * a concurrent reload waits for the outcome instead of reviving the session.
+     */
+    public void end(Long sessionId) {
+        store.removeSession(sessionId);
+        flush(sessionId);
+    }
+
+    /**
+     * Sets logged against a session and not yet flushed, in logging order. For
+     * reads, which shouldn't write: read these before the table, so a set
+     * flushed in between shows up in both rather than in neither.
+     */
+    public List<WorkoutSetDto> findPendingSets(Long sessionId) {
+        return store.findPending(sessionId).stream()
+                .map(set -> toDto(set, exercise(set.exerciseId())))
+                .toList();
+    }
+
+    /**
+     * Forget a session that is being deleted, including sets not yet flushed
+     */
+    public void discard(Long sessionId) {
+        store.removeSession(sessionId);
+        store.removePending(sessionId, store.findPending(sessionId).stream()
+                .map(ActiveSessionStore.PendingSet::id)
+                .toList());
+    }
+
+    private ActiveSessionStore.ActiveSession requireActive(Long userId, Long sessionId) {
+        Optional<ActiveSessionStore.ActiveSession> cached = store.findSession(sessionId);
+        if (cached.isPresent()) {
+            if (!cached.get().userId().equals(userId)) {
+                throw new NotFoundException("Session not found");
+            }
+            return cached.get();
+        }
+
+        // Stored while the row lock is held, so a completion can't remove it before it is stored
+        return loadTransaction.execute(status -> {
+            ActiveSessionStore.ActiveSession active = load(userId, sessionId);
+            store.saveSession(active);
+            return active;
+        });
+    }
+
+    private ActiveSessionStore.ActiveSession load(Long userId, Long sessionId) {
+        // Locked, so a completion that has removed the session from the store is seen once it commits
+        WorkoutSession session = sessionRepository.findForShareByIdAndUserId(sessionId, userId)
+                .orElseThrow(() -> new NotFoundException("Session not found"));
+        if (session.getStatus() != WorkoutSession.SessionStatus.IN_PROGRESS) {
+            throw new BadRequestException("Session is not in progress");
+        }
+
+        // Warm the exercise cache with what the plan day is going to log
+        if (session.getPlanDayId() != null) {
+            planDayRepository.findByIdWithExercises(session.getPlanDayId()).ifPresent(planDay -> planDay
+                    .getExercises()
+                    .forEach(ex -> exercises.put(ex.getExercise().getId(), exerciseService.toDto(ex.getExercise()))));
+        }
+
+        return new ActiveSessionStore.ActiveSession(session.getId(), session.getUserId(), session.getPlanDayId());
+    }
+
+    private ExerciseDto exercise(Long exerciseId) {
+        ExerciseDto exercise = exercises.get(exerciseId, id -> exerciseRepository.findById(id)
+                .map(exerciseService::toDto)
+                .orElse(null));
+        if (exercise == null) {
+            throw new NotFoundException("Exercise not found");
+        }
+        return exercise;
+    }
+
+    private Optional<WorkoutSetDto> findByClientId(Long sessionId, String clientId) {
+        Optional<WorkoutSetDto> pending = store.findPending(sessionId).stream()
+                .filter(set -> clientId.equals(set.clientId()))
+                .findFirst()
+                .map(set -> toDto(set, exercise(set.exerciseId())));
+        if (pending.isPresent()) {
+            return pending;
+        }
+        return setRepository.findBySessionIdAndClientId(sessionId, clientId)
+                .map(set -> toDto(toPending(set), exerciseService.toDto(set.getExercise())));
+    }
+
+    private WorkoutSet toEntity(ActiveSessionStore.PendingSet set) {
+        return WorkoutSet.builder()
+                .id(set.id())
+                .session(sessionRepository.getReferenceById(set.sessionId()))
+                .exercise(exerciseRepository.getReferenceById(set.exerciseId()))
+                .setNumber(set.setNumber())
+                .repsCompleted(set.repsCompleted())
+                .weightUsed(set.weightUsed())
+                .completedAt(set.completedAt())
+                .clientId(set.clientId())
+                .build();
+    }
+
+    private ActiveSessionStore.PendingSet toPending(WorkoutSet set) {
+        return new ActiveSessionStore.PendingSet(set.getId(), set.getSession().getId(), set.getExercise().getId(),
+                set.getSetNumber(), set.getRepsCompleted(), set.getWeightUsed(), set.getCompletedAt(),
+                set.getClientId());
+    }
+
+    private WorkoutSetDto toDto(ActiveSessionStore.PendingSet set, ExerciseDto exercise) {
+        return WorkoutSetDto.builder()
+                .id(set.id())
+                .sessionId(set.sessionId())
+                .exerciseId(exercise.getId())
+                .exercise(exercise)
+                .setNumber(set.setNumber())
+                .repsCompleted(set.repsCompleted())
+                .weightUsed(set.weightUsed())
+                .completedAt(set.completedAt())
+                .clientId(set.clientId())
+                .build();
+    }
+}
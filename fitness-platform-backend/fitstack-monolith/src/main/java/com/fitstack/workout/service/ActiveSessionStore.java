@@ -0,0 +1,102 @@
+package com.fitstack.workout.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Working set of in-progress workout sessions: the session itself, so logging a
+ * set doesn't re-read it, and the sets logged but not yet written to Postgres.
+ *
+ * Pending sets are the write-behind journal. {@link #appendPending} must not
+ * return until the set would survive a crash of this node; sets leave the
+ * journal only after they have been committed to the workouts database.
+ * A set is only appended while its session is in the store, so once
+ * {@link #removeSession} returns no more sets arrive for it.
+ * Selected with {@code workout.active-session.store} ({@code memory} or {@code redis}).
+ */
+public interface ActiveSessionStore {
+
+    Optional<ActiveSession> findSession(Long sessionId);
+
+    void saveSession(ActiveSession session);
+
+    void removeSession(Long sessionId);
+
+    /**
+     * Durably record a set that hasn't been flushed to the database yet, if its
+     * session is still in the store and no set with the same client ID was
+     * recorded for the session before; checked and appended atomically. Client
+     * IDs are remembered until the session is removed, flushed or not.
+     *
+     * @return the ID of the set recorded under the set's client ID - its own, or
+     *         that of the earlier one - or empty if the session isn't in the
+     *         store and nothing was recorded
+     */
+    Optional<Long> appendPending(PendingSet set);
+
+    /**
+     * Unflushed sets of a session, in the order they were logged
+     */
+    List<PendingSet> findPending(Long sessionId);
+
+    Set<Long> findSessionsWithPending();
+
+    /**
+     * Drop sets from the journal once they are in the database; unknown IDs are ignored
+     */
+    void removePending(Long sessionId, Collection<Long> setIds);
+
+    /**
+     * Take or renew the right to run the periodic flush; only one node holds it at a time
+     */
+    boolean tryAcquireFlusherLease(String nodeId, long leaseMillis);
+
+    record ActiveSession(Long sessionId, Long userId, Long planDayId) {
+
+        String encode() {
+            return String.join("|", userId.toString(), planDayId == null ? "" : planDayId.toString());
+        }
+
+        static ActiveSession decode(Long sessionId, String value) {
+            String[] parts = value.split("\\|", -1);
+            return new ActiveSession(sessionId, Long.valueOf(parts[0]),
+                    parts[1].isEmpty() ? null : Long.valueOf(parts[1]));
+        }
+    }
+
+    /**
+     * A logged set. The ID is allocated up front from the workout_sets
+     * sequence, so the client gets its final ID before the row exists.
+     */
+    record PendingSet(Long id, Long sessionId, Long exerciseId, Integer setNumber, Integer repsCompleted,
+                      BigDecimal weightUsed, LocalDateTime completedAt, String clientId) {
+
+        String encode() {
+            // clientId is client-supplied: encoded so separators and line breaks can't reach the journal
+            return String.join("|", id.toString(), exerciseId.toString(), str(setNumber), str(repsCompleted),
+                    str(weightUsed), completedAt.toString(), clientId == null ? "" : Base64.getUrlEncoder()
+                            .withoutPadding().encodeToString(clientId.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        static PendingSet decode(Long sessionId, String value) {
+            String[] parts = value.split("\\|", -1);
+            return new PendingSet(Long.valueOf(parts[0]), sessionId, Long.valueOf(parts[1]),
+                    parts[2].isEmpty() ? null : Integer.valueOf(parts[2]),
+                    parts[3].isEmpty() ? null : Integer.valueOf(parts[3]),
+                    parts[4].isEmpty() ? null : new BigDecimal(parts[4]),
+                    LocalDateTime.parse(parts[5]),
+                    parts[6].isEmpty() ? null
+                            : new String(Base64.getUrlDecoder().decode(parts[6]), StandardCharsets.UTF_8));
+        }
+
+        private static String str(Object value) {
+            return value == null ? "" : value.toString();
+        }
+    }
+}
@@ -91,23 +91,26 @@ public class ExerciseImportService {
 
         log.info("Unique exercises after dedup: {}", unique.size());
 
-        // Import exercises (skip existing by name)
+        // Import exercises (skip existing by name). Existing names are loaded up
+        // front so no query runs between saves and the inserts flush in batches.
         int imported = 0;
         int skipped = 0;
         Map<String, Integer> byEquipment = new HashMap<>();
         Map<String, Integer> byMuscle = new HashMap<>();
+        Set<String> existingNames = exerciseRepository.findAllLowercaseNames();
+        List<Exercise> toImport = new ArrayList<>();
 
         for (ExerciseDbResponse apiEx : unique) {
             String normalizedName = normalizeExerciseName(apiEx.getName());
 
             // Check if exercise already exists
-            if (exerciseRepository.existsByNameIgnoreCase(normalizedName)) {
+            if (existingNames.contains(normalizedName.toLowerCase())) {
                 skipped++;
                 continue;
             }
 
             Exercise exercise = convertToExercise(apiEx);
-            exerciseRepository.save(exercise);
+            toImport.add(exercise);
             imported++;
 
             // Track statistics
@@ -115,6 +118,8 @@ public class ExerciseImportService {
             byMuscle.merge(exercise.getMuscleGroup(), 1, Integer::sum);
         }
 
+        exerciseRepository.saveAll(toImport);
+
         // Log summary
         logImportSummary(imported, skipped, excludedCount, byEquipment, byMuscle);
 
@@ -0,0 +1,165 @@
+package com.fitstack.workout.service;
+
+import com.fitstack.workout.entity.UserExerciseStats;
+import com.fitstack.workout.entity.WorkoutSet;
+import com.fitstack.workout.repository.ExerciseRepository;
+import com.fitstack.workout.repository.UserExerciseStatsBatchRepository;
+import com.fitstack.workout.repository.UserExerciseStatsRepository;
+import com.fitstack.workout.repository.WorkoutSetRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps user_exercise_stats current so personal records and overload
+ * suggestions are one query, however long the user's history is.
+ *
+ * A session's sets are summarized per exercise when it completes and merged
+ * into the stored stats. Deleting history can lower a best, which a merge
+ * can't express, so those paths rebuild the user's stats from scratch. A user
+ * whose history predates this table is rebuilt on their first completed
+ * session or read, whichever comes first; a per-user marker records that the
+ * stats cover the whole history. Rebuilds run the columnar kernel over the
+ * user's {@link TrainingHistory}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExerciseStatsService {
+
+    private final WorkoutSetRepository setRepository;
+    private final UserExerciseStatsRepository statsRepository;
+    private final UserExerciseStatsBatchRepository statsBatchRepository;
+    private final ExerciseRepository exerciseRepository;
+    private final TrainingHistoryLoader historyLoader;
+
+    /**
+     * Fold a just-completed session into its user's stats
+     */
+    @Transactional("workoutsTransactionManager")
+    public void recordSession(Long userId, Long sessionId) {
+        if (!statsBatchRepository.isBuilt(userId)) {
+            // Folding into stats that miss older history would keep wrong bests; the session is already flushed
+            rebuild(userId);
+            return;
+        }
+        List<WorkoutSet> sets = setRepository.findBySessionIdOrderByCompletedAtAsc(sessionId);
+        statsBatchRepository.upsertAll(summarize(userId, sessionId, sets));
+    }
+
+    /**
+     * Stats for every exercise the user has completed, with the exercise loaded
+     */
+    @Transactional("workoutsTransactionManager")
+    public List<UserExerciseStats> getStats(Long userId) {
+        if (!statsBatchRepository.isBuilt(userId)) {
+            rebuild(userId);
+        }
+        return statsRepository.findWithExerciseByUserId(userId);
+    }
+
+    /**
+     * Recompute a user's stats from all their completed sessions
+     *
+     * @return the number of exercises with stats
+     */
+    @Transactional("workoutsTransactionManager")
+    public int rebuild(Long userId) {
+        // Read in this transaction: callers have just deleted history in it
+        return replace(userId, historyLoader.load(userId));
+    }
+
+    public void deleteAll(Long userId) {
+        statsRepository.deleteByUserId(userId);
+    }
+
+    private int replace(Long userId, TrainingHistory history) {
+        statsRepository.deleteByUserId(userId);
+        List<UserExerciseStats> stats = TrainingHistoryKernels.exerciseStats(userId, history,
+                exerciseRepository::getReferenceById);
+        statsBatchRepository.upsertAll(stats);
+        statsBatchRepository.markBuilt(userId);
+        log.debug("Rebuilt exercise stats for user {} from {} sets", userId, history.size());
+        return stats.size();
+    }
+
+    static List<UserExerciseStats> summarize(Long userId, Long sessionId, List<WorkoutSet> sets) {
+        Map<Long, List<WorkoutSet>> byExercise = sets.stream()
+                .collect(Collectors.groupingBy(set -> set.getExercise().getId(), LinkedHashMap::new,
+                        Collectors.toList()));
+
+        List<UserExerciseStats> summaries = new ArrayList<>(byExercise.size());
+        for (List<WorkoutSet> exerciseSets : byExercise.values()) {
+            UserExerciseStats stats = UserExerciseStats.builder()
+                    .userId(userId)
+                    .exercise(exerciseSets.get(0).getExercise())
+                    .lastSessionId(sessionId)
+                    .lastSessionSets(exerciseSets.size())
+                    .build();
+
+            BigDecimal totalWeight = BigDecimal.ZERO;
+            int totalReps = 0;
+            int repsCount = 0;
+            for (WorkoutSet set : exerciseSets) {
+                BigDecimal weight = set.getWeightUsed();
+                Integer reps = set.getRepsCompleted();
+                LocalDateTime at = set.getCompletedAt();
+
+                if (at != null && (stats.getLastSessionAt() == null || at.isAfter(stats.getLastSessionAt()))) {
+                    stats.setLastSessionAt(at);
+                }
+                if (weight != null) {
+                    totalWeight = totalWeight.add(weight);
+                    if (stats.getMaxWeight() == null || weight.compareTo(stats.getMaxWeight()) > 0) {
+                        stats.setMaxWeight(weight);
+                        stats.setMaxWeightAt(at);
+                    }
+                }
+                if (reps != null) {
+                    totalReps += reps;
+                    repsCount++;
+                    if (stats.getMaxReps() == null || reps > stats.getMaxReps()) {
+                        stats.setMaxReps(reps);
+                    }
+                }
+                if (weight != null && reps != null) {
+                    BigDecimal volume = weight.multiply(BigDecimal.valueOf(reps));
+                    if (stats.getMaxVolume() == null || volume.compareTo(stats.getMaxVolume()) > 0) {
+                        stats.setMaxVolume(volume);
+                    }
+                    BigDecimal oneRepMax = estimateOneRepMax(weight, reps);
+                    if (oneRepMax != null && (stats.getBestOneRepMax() == null
+                            || oneRepMax.compareTo(stats.getBestOneRepMax()) > 0)) {
+                        stats.setBestOneRepMax(oneRepMax);
+                        stats.setBestOneRepMaxAt(at);
+                    }
+                }
+            }
+
+            stats.setLastSessionAvgWeight(totalWeight.divide(BigDecimal.valueOf(exerciseSets.size()), 2,
+                    RoundingMode.HALF_UP));
+            stats.setLastSessionAvgReps(repsCount > 0 ? totalReps / repsCount : 0);
+            summaries.add(stats);
+        }
+        return summaries;
+    }
+
+    // Brzycki: 1RM = w × (36 / (37 - r))
+    private static BigDecimal estimateOneRepMax(BigDecimal weight, int reps) {
+        if (weight.compareTo(BigDecimal.ZERO) <= 0 || reps <= 0 || reps >= 37) {
+            return null;
+        }
+        return weight.multiply(BigDecimal.valueOf(36))
+                .divide(BigDecimal.valueOf(37 - reps), 2, RoundingMode.HALF_UP);
+    }
+}
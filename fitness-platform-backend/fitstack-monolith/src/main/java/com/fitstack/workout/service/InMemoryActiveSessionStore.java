@@ -0,0 +1,228 @@
+package com.fitstack.workout.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Single-node session store. Pending sets are also appended to a local journal
+ * file, fsynced per set, and reloaded at startup so a crash loses nothing that
+ * was acknowledged. The journal is truncated whenever everything is flushed.
+ * An empty {@code journal-path} turns the journal off. Sessions nobody logged
+ * against for {@code idle-minutes} are forgotten, with their client IDs, and
+ * reloaded if they come back; pending sets stay until they are flushed.
+ */
+@Service
+@ConditionalOnProperty(name = "workout.active-session.store", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryActiveSessionStore implements ActiveSessionStore {
+
+    private static final char ADDED = '+';
+    private static final char REMOVED = '-';
+
+    private final Cache<Long, ActiveSession> sessions;
+    // Session ID -> client ID -> set ID, guarded by this store's lock
+    private final Cache<Long, Map<String, Long>> clientIds;
+    // Set IDs grow in logging order on a single node
+    private final Map<Long, ConcurrentSkipListMap<Long, PendingSet>> pending = new ConcurrentHashMap<>();
+
+    private final FileChannel journal;
+
+    public InMemoryActiveSessionStore(@Value("${workout.active-session.journal-path:}") String journalPath,
+            @Value("${workout.active-session.idle-minutes:240}") long idleMinutes) {
+        this.sessions = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+        this.clientIds = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+        this.journal = journalPath.isBlank() ? null : openJournal(Path.of(journalPath));
+    }
+
+    @Override
+    public Optional<ActiveSession> findSession(Long sessionId) {
+        return Optional.ofNullable(sessions.getIfPresent(sessionId));
+    }
+
+    @Override
+    public void saveSession(ActiveSession session) {
+        sessions.put(session.sessionId(), session);
+    }
+
+    @Override
+    public synchronized void removeSession(Long sessionId) {
+        sessions.invalidate(sessionId);
+        clientIds.invalidate(sessionId);
+    }
+
+    @Override
+    public synchronized Optional<Long> appendPending(PendingSet set) {
+        if (sessions.getIfPresent(set.sessionId()) == null) {
+            return Optional.empty();
+        }
+        Map<String, Long> sessionClientIds = clientIds.get(set.sessionId(), id -> new HashMap<>());
+        if (set.clientId() != null && sessionClientIds.containsKey(set.clientId())) {
+            return Optional.of(sessionClientIds.get(set.clientId()));
+        }
+        writeJournal(ADDED + set.sessionId().toString() + "|" + set.encode());
+        pending.computeIfAbsent(set.sessionId(), id -> new ConcurrentSkipListMap<>()).put(set.id(), set);
+        if (set.clientId() != null) {
+            sessionClientIds.put(set.clientId(), set.id());
+        }
+        return Optional.of(set.id());
+    }
+
+    @Override
+    public List<PendingSet> findPending(Long sessionId) {
+        Map<Long, PendingSet> sets = pending.get(sessionId);
+        return sets == null ? List.of() : new ArrayList<>(sets.values());
+    }
+
+    @Override
+    public Set<Long> findSessionsWithPending() {
+        return Set.copyOf(pending.keySet());
+    }
+
+    @Override
+    public synchronized void removePending(Long sessionId, Collection<Long> setIds) {
+        Map<Long, PendingSet> sets = pending.get(sessionId);
+        if (sets == null || setIds.isEmpty()) {
+            return;
+        }
+        setIds.forEach(sets::remove);
+        if (sets.isEmpty()) {
+            pending.remove(sessionId);
+        }
+
+        if (pending.isEmpty()) {
+            truncateJournal();
+        } else {
+            writeJournal(REMOVED + sessionId.toString() + "|"
+                    + String.join(",", setIds.stream().map(String::valueOf).toList()));
+        }
+    }
+
+    @Override
+    public boolean tryAcquireFlusherLease(String nodeId, long leaseMillis) {
+        return true;
+    }
+
+    private FileChannel openJournal(Path path) {
+        try {
+            if (Files.exists(path)) {
+                replay(path);
+                compact(path);
+            } else if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open active session journal " + path, e);
+        }
+    }
+
+    private void replay(Path path) throws IOException {
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            // A torn final line from a crash mid-write is skipped
+            int separator = line.indexOf('|');
+            if (line.length() < 2 || separator < 0) {
+                continue;
+            }
+            try {
+                Long sessionId = Long.valueOf(line.substring(1, separator));
+                String body = line.substring(separator + 1);
+                if (line.charAt(0) == ADDED) {
+                    PendingSet set = PendingSet.decode(sessionId, body);
+                    pending.computeIfAbsent(sessionId, id -> new ConcurrentSkipListMap<>()).put(set.id(), set);
+                    if (set.clientId() != null) {
+                        clientIds.get(sessionId, id -> new HashMap<>()).put(set.clientId(), set.id());
+                    }
+                } else if (line.charAt(0) == REMOVED && pending.containsKey(sessionId)) {
+                    Map<Long, PendingSet> sets = pending.get(sessionId);
+                    Arrays.stream(body.split(",")).map(Long::valueOf).forEach(sets::remove);
+                    if (sets.isEmpty()) {
+                        pending.remove(sessionId);
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Skipping unreadable active session journal entry: {}", e.getMessage());
+            }
+        }
+        int count = pending.values().stream().mapToInt(Map::size).sum();
+        if (count > 0) {
+            log.info("Recovered {} unflushed sets for {} sessions from {}", count, pending.size(), path);
+        }
+    }
+
+    /**
+     * Rewrite the journal with only the recovered sets
+     */
+    private void compact(Path path) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Map<Long, PendingSet> sets : pending.values()) {
+                for (PendingSet set : sets.values()) {
+                    writer.write(ADDED + set.sessionId().toString() + "|" + set.encode());
+                    writer.newLine();
+                }
+            }
+        }
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeJournal(String entry) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap((entry + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            journal.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write active session journal", e);
+        }
+    }
+
+    private void truncateJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.truncate(0);
+            journal.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot truncate active session journal", e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.fitstack.workout.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Single-node timer store. Nothing survives a restart; used when Redis isn't
+ * wanted, e.g. local development and tests.
+ */
+@Service
+@ConditionalOnProperty(name = "workout.rest-timer.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRestTimerStore implements RestTimerStore {
+
+    private final Map<Long, StoredTimer> timers = new ConcurrentHashMap<>();
+    // Session ID -> node ID -> tick subscriptions on that node
+    private final Map<Long, Map<String, Integer>> tickSubscribers = new ConcurrentHashMap<>();
+    private final List<Consumer<Long>> tickListeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void save(StoredTimer timer) {
+        timers.put(timer.sessionId(), timer);
+    }
+
+    @Override
+    public Optional<StoredTimer> find(Long sessionId) {
+        return Optional.ofNullable(timers.get(sessionId));
+    }
+
+    @Override
+    public boolean claim(Long sessionId, String timerId) {
+        if (timerId == null) {
+            return timers.remove(sessionId) != null;
+        }
+        StoredTimer current = timers.get(sessionId);
+        return current != null && current.timerId().equals(timerId) && timers.remove(sessionId, current);
+    }
+
+    @Override
+    public List<StoredTimer> pollExpired(long upToMillis, int limit) {
+        List<StoredTimer> expired = new ArrayList<>();
+        Iterator<StoredTimer> it = timers.values().iterator();
+        while (it.hasNext() && expired.size() < limit) {
+            StoredTimer timer = it.next();
+            if (timer.deadline() != null && timer.deadline() <= upToMillis && timers.remove(timer.sessionId(), timer)) {
+                expired.add(timer);
+            }
+        }
+        return expired;
+    }
+
+    @Override
+    public boolean tryAcquirePollerLease(String nodeId, long leaseMillis) {
+        return true;
+    }
+
+    @Override
+    public void saveTickSubscribers(Long sessionId, String nodeId, int count) {
+        tickSubscribers.compute(sessionId, (id, nodes) -> {
+            Map<String, Integer> next = nodes != null ? nodes : new ConcurrentHashMap<>();
+            if (count > 0) {
+                next.put(nodeId, count);
+            } else {
+                next.remove(nodeId);
+            }
+            return next.isEmpty() ? null : next;
+        });
+        tickListeners.forEach(listener -> listener.accept(sessionId));
+    }
+
+    @Override
+    public boolean hasTickSubscribers(Long sessionId) {
+        return tickSubscribers.containsKey(sessionId);
+    }
+
+    @Override
+    public void onTickSubscribersChanged(Consumer<Long> listener) {
+        tickListeners.add(listener);
+    }
+}
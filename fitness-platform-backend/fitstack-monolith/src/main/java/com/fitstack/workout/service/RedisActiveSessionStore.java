@@ -0,0 +1,124 @@
+package com.fitstack.workout.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Session store in Redis, shared by all nodes. Each session's pending sets are
+ * a hash of set ID to encoded set, and a set of session IDs indexes the
+ * sessions that still have something to flush. A second hash per session maps
+ * client IDs to set IDs, so retried sets are recognized in the append script.
+ * Redis persistence (AOF) is the journal. Removing a set by ID is idempotent, so nodes flushing the same
+ * session concurrently can't drop each other's sets.
+ */
+@Service
+@ConditionalOnProperty(name = "workout.active-session.store", havingValue = "redis")
+@RequiredArgsConstructor
+public class RedisActiveSessionStore implements ActiveSessionStore {
+
+    private static final String SESSION_PREFIX = "activesession:session:";
+    private static final String PENDING_PREFIX = "activesession:pending:";
+    private static final String PENDING_INDEX_KEY = "activesession:pending-sessions";
+    private static final String CLIENT_IDS_PREFIX = "activesession:clientids:";
+    private static final String FLUSHER_LEASE_KEY = "activesession:flusher";
+
+    private static final RedisScript<Long> APPEND_SCRIPT = loadScript("redis/active-session-append.lua", Long.class);
+    private static final RedisScript<Long> REMOVE_SCRIPT = loadScript("redis/active-session-remove.lua", Long.class);
+    private static final RedisScript<Long> LEASE_SCRIPT = loadScript("redis/rest-timer-lease.lua", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${workout.active-session.idle-minutes:240}")
+    private long idleMinutes;
+
+    @Override
+    public Optional<ActiveSession> findSession(Long sessionId) {
+        String value = redisTemplate.opsForValue().get(SESSION_PREFIX + sessionId);
+        return Optional.ofNullable(value).map(v -> ActiveSession.decode(sessionId, v));
+    }
+
+    @Override
+    public void saveSession(ActiveSession session) {
+        redisTemplate.opsForValue().set(SESSION_PREFIX + session.sessionId(), session.encode(),
+                Duration.ofMinutes(idleMinutes));
+    }
+
+    @Override
+    public void removeSession(Long sessionId) {
+        redisTemplate.delete(List.of(SESSION_PREFIX + sessionId, CLIENT_IDS_PREFIX + sessionId));
+    }
+
+    @Override
+    public Optional<Long> appendPending(PendingSet set) {
+        Long recorded = redisTemplate.execute(APPEND_SCRIPT,
+                List.of(PENDING_PREFIX + set.sessionId(), PENDING_INDEX_KEY, SESSION_PREFIX + set.sessionId(),
+                        CLIENT_IDS_PREFIX + set.sessionId()),
+                set.sessionId().toString(),
+                set.id().toString(),
+                set.encode(),
+                set.clientId() != null ? set.clientId() : "",
+                String.valueOf(Duration.ofMinutes(idleMinutes).toMillis()));
+        return recorded == null || recorded == 0 ? Optional.empty() : Optional.of(recorded);
+    }
+
+    @Override
+    public List<PendingSet> findPending(Long sessionId) {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(PENDING_PREFIX + sessionId);
+        List<PendingSet> sets = new ArrayList<>(entries.size());
+        entries.values().forEach(value -> sets.add(PendingSet.decode(sessionId, (String) value)));
+        // IDs come from per-node blocks, so order by when the set was logged
+        sets.sort(Comparator.comparing(PendingSet::completedAt).thenComparing(PendingSet::id));
+        return sets;
+    }
+
+    @Override
+    public Set<Long> findSessionsWithPending() {
+        Set<String> members = redisTemplate.opsForSet().members(PENDING_INDEX_KEY);
+        return members == null ? Set.of() : members.stream().map(Long::valueOf).collect(Collectors.toSet());
+    }
+
+    @Override
+    public void removePending(Long sessionId, Collection<Long> setIds) {
+        if (setIds.isEmpty()) {
+            return;
+        }
+        Object[] args = new Object[setIds.size() + 1];
+        args[0] = sessionId.toString();
+        int i = 1;
+        for (Long id : setIds) {
+            args[i++] = id.toString();
+        }
+        redisTemplate.execute(REMOVE_SCRIPT, List.of(PENDING_PREFIX + sessionId, PENDING_INDEX_KEY), args);
+    }
+
+    @Override
+    public boolean tryAcquireFlusherLease(String nodeId, long leaseMillis) {
+        Long acquired = redisTemplate.execute(LEASE_SCRIPT,
+                List.of(FLUSHER_LEASE_KEY), nodeId, String.valueOf(leaseMillis));
+        return acquired != null && acquired == 1;
+    }
+
+    private static <T> RedisScript<T> loadScript(String path, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(resultType);
+        return script;
+    }
+}
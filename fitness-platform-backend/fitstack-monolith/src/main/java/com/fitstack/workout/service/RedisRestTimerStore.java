@@ -0,0 +1,141 @@
+package com.fitstack.workout.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Timer store in Redis: one string per session holding the encoded timer, plus
+ * a sorted set of running sessions scored by deadline so expirations can be
+ * found with a range query. All multi-key changes run as Lua scripts.
+ *
+ * Tick subscribers are a hash per session of node ID to subscription count;
+ * every change is announced on a pub/sub channel so the node running the
+ * timer can start or stop its ticks.
+ */
+@Service
+@ConditionalOnProperty(name = "workout.rest-timer.store", havingValue = "redis")
+@RequiredArgsConstructor
+public class RedisRestTimerStore implements RestTimerStore {
+
+    private static final String TIMER_PREFIX = "resttimer:timer:";
+    private static final String DEADLINES_KEY = "resttimer:deadlines";
+    private static final String POLLER_LEASE_KEY = "resttimer:poller";
+    private static final String TICK_SUBSCRIBERS_PREFIX = "resttimer:ticksubs:";
+    private static final String TICK_SUBSCRIBERS_CHANNEL = "resttimer:ticksubs";
+
+    // Keys outlive the deadline a little so a lagging poller still finds the timer
+    private static final long RETENTION_MILLIS = TimeUnit.HOURS.toMillis(1);
+    // Paused timers have no deadline; drop abandoned ones eventually
+    private static final long PAUSED_RETENTION_MILLIS = TimeUnit.DAYS.toMillis(1);
+    // Counts of a node that died without unsubscribing only keep ticks running, so let them linger
+    private static final long SUBSCRIBER_RETENTION_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private static final RedisScript<Long> SAVE_SCRIPT = loadScript("redis/rest-timer-save.lua", Long.class);
+    private static final RedisScript<Long> CLAIM_SCRIPT = loadScript("redis/rest-timer-claim.lua", Long.class);
+    private static final RedisScript<List> POLL_SCRIPT = loadScript("redis/rest-timer-poll.lua", List.class);
+    private static final RedisScript<Long> LEASE_SCRIPT = loadScript("redis/rest-timer-lease.lua", Long.class);
+    private static final RedisScript<Long> SUBSCRIBERS_SCRIPT =
+            loadScript("redis/rest-timer-subscribers.lua", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Override
+    public void save(StoredTimer timer) {
+        long ttl = timer.isPaused()
+                ? PAUSED_RETENTION_MILLIS
+                : Math.max(0, timer.deadline() - System.currentTimeMillis()) + RETENTION_MILLIS;
+        redisTemplate.execute(SAVE_SCRIPT,
+                List.of(TIMER_PREFIX + timer.sessionId(), DEADLINES_KEY),
+                timer.sessionId().toString(),
+                timer.encode(),
+                String.valueOf(ttl),
+                timer.isPaused() ? "" : timer.deadline().toString());
+    }
+
+    @Override
+    public Optional<StoredTimer> find(Long sessionId) {
+        String value = redisTemplate.opsForValue().get(TIMER_PREFIX + sessionId);
+        return Optional.ofNullable(value).map(v -> StoredTimer.decode(sessionId, v));
+    }
+
+    @Override
+    public boolean claim(Long sessionId, String timerId) {
+        Long claimed = redisTemplate.execute(CLAIM_SCRIPT,
+                List.of(TIMER_PREFIX + sessionId, DEADLINES_KEY),
+                sessionId.toString(),
+                timerId != null ? timerId : "");
+        return claimed != null && claimed == 1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<StoredTimer> pollExpired(long upToMillis, int limit) {
+        List<String> result = redisTemplate.execute(POLL_SCRIPT,
+                List.of(DEADLINES_KEY),
+                String.valueOf(upToMillis),
+                String.valueOf(limit),
+                TIMER_PREFIX);
+
+        List<StoredTimer> expired = new ArrayList<>();
+        if (result != null) {
+            // Flat pairs of session ID and encoded timer
+            for (int i = 0; i + 1 < result.size(); i += 2) {
+                expired.add(StoredTimer.decode(Long.valueOf(result.get(i)), result.get(i + 1)));
+            }
+        }
+        return expired;
+    }
+
+    @Override
+    public boolean tryAcquirePollerLease(String nodeId, long leaseMillis) {
+        Long acquired = redisTemplate.execute(LEASE_SCRIPT,
+                List.of(POLLER_LEASE_KEY), nodeId, String.valueOf(leaseMillis));
+        return acquired != null && acquired == 1;
+    }
+
+    @Override
+    public void saveTickSubscribers(Long sessionId, String nodeId, int count) {
+        redisTemplate.execute(SUBSCRIBERS_SCRIPT,
+                List.of(TICK_SUBSCRIBERS_PREFIX + sessionId),
+                nodeId,
+                String.valueOf(count),
+                String.valueOf(SUBSCRIBER_RETENTION_MILLIS),
+                TICK_SUBSCRIBERS_CHANNEL,
+                sessionId.toString());
+    }
+
+    @Override
+    public boolean hasTickSubscribers(Long sessionId) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(TICK_SUBSCRIBERS_PREFIX + sessionId));
+    }
+
+    @Override
+    public void onTickSubscribersChanged(Consumer<Long> listener) {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> listener.accept(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8))),
+                new ChannelTopic(TICK_SUBSCRIBERS_CHANNEL));
+    }
+
+    private static <T> RedisScript<T> loadScript(String path, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(resultType);
+        return script;
+    }
+}
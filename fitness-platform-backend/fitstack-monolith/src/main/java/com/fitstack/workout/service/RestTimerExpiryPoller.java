@@ -0,0 +1,58 @@
+package com.fitstack.workout.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fires rest timers whose node is gone - restarted, redeployed or crashed.
+ *
+ * Nodes normally end their own timers on time. Only the node holding the
+ * poller lease looks for timers more than {@code grace-ms} overdue and ends
+ * them in batches, so each orphaned timer still gets exactly one END.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RestTimerExpiryPoller {
+
+    private final RestTimerStore store;
+    private final RestTimerService restTimerService;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${workout.rest-timer.poller.lease-ms:10000}")
+    private long leaseMs;
+
+    @Value("${workout.rest-timer.poller.grace-ms:2000}")
+    private long graceMs;
+
+    @Value("${workout.rest-timer.poller.batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${workout.rest-timer.poller.interval-ms:1000}")
+    public void poll() {
+        try {
+            if (!store.tryAcquirePollerLease(nodeId, leaseMs)) {
+                return;
+            }
+
+            List<RestTimerStore.StoredTimer> expired;
+            do {
+                expired = store.pollExpired(System.currentTimeMillis() - graceMs, batchSize);
+                expired.forEach(restTimerService::fireExpired);
+                if (!expired.isEmpty()) {
+                    log.info("Fired {} overdue rest timers", expired.size());
+                }
+            } while (expired.size() == batchSize);
+        } catch (DataAccessException e) {
+            log.warn("Rest timer expiry poll failed: {}", e.getMessage());
+        }
+    }
+}
@@ -1,108 +1,549 @@
 package com.fitstack.workout.service;
 
+import com.fitstack.workout.config.RestTimerTickSubscriptions;
 import com.fitstack.workout.dto.RestTimerMessage;
 import com.fitstack.workout.dto.WebSocketMessage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
+/**
+ * Drives workout rest-timer countdowns.
+ *
+ * All timers share one scheduler thread, so a running timer holds no thread of
+ * its own. Every timer has an absolute deadline carried, with the server clock,
+ * by its START, PAUSE, ADJUST and END messages. Clients pick their periodic
+ * frames by destination, whichever client started the timer:
+ * <ul>
+ *   <li>/topic/workout/{sessionId}/ticks - a REST_TIMER_TICK every second</li>
+ *   <li>/topic/workout/{sessionId}/sync - clients count down locally, corrected
+ *       by a low-frequency REST_TIMER_SYNC</li>
+ * </ul>
+ * Ticks are only scheduled while a connection on some node subscribes to them
+ * (see {@link RestTimerTickSubscriptions}); a one-shot task at the deadline
+ * ends the timer either way.
+ *
+ * Timers are immutable snapshots: pausing or adjusting swaps in a new one with
+ * a CAS on the timer map. Stopping is a map removal plus a CAS on the timer;
+ * only starting and stopping ticks takes the timer's own lock.
+ *
+ * Every snapshot is also written to the {@link RestTimerStore}. Control actions
+ * read it back, so any node can pause, adjust or stop a timer another node
+ * started. A timer only announces END after claiming itself in the store, and
+ * {@link RestTimerExpiryPoller} ends timers whose node went away.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RestTimerService {
 
-    private final SimpMessagingTemplate messagingTemplate;
-    
+    private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    // Ticks and syncs carry the full timer state, so a client that falls behind only
+    // needs the newest one (see ConflatingSessionDecorator). START, PAUSE, ADJUST and
+    // END are transitions the client must see, so they are never conflated.
+    private static final Map<String, Object> CONFLATE_HEADERS = Map.of("x-conflate", "rest-timer");
+
+    private final WorkoutStreamService workoutStreamService;
+    private final MeterRegistry meterRegistry;
+    private final RestTimerStore store;
+
+    // Sent to .../sync subscribers; 0 disables drift-correction broadcasts
+    @Value("${workout.rest-timer.sync-interval-seconds:30}")
+    private long syncIntervalSeconds;
+
     // Track active timers by session ID
-    private final Map<Long, AtomicBoolean> activeTimers = new ConcurrentHashMap<>();
+    private final Map<Long, RestTimer> activeTimers = new ConcurrentHashMap<>();
+
+    private ScheduledThreadPoolExecutor scheduler;
+    private Timer tickLag;
+
+    @PostConstruct
+    public void init() {
+        scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "rest-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Cancelled timers leave the queue immediately instead of at their next due time
+        scheduler.setRemoveOnCancelPolicy(true);
+
+        Gauge.builder("fitstack.rest_timer.active", activeTimers, Map::size)
+                .description("Rest timers currently counting down").register(meterRegistry);
+        tickLag = Timer.builder("fitstack.rest_timer.tick.lag")
+                .description("Delay between when a timer tick was due and when it ran")
+                .register(meterRegistry);
+
+        store.onTickSubscribersChanged(this::tickSubscribersChanged);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
 
-    @Async
     public void startRestTimer(Long sessionId, Long exerciseId, Integer setNumber, Integer totalSeconds) {
-        // Cancel any existing timer for this session
-        stopRestTimer(sessionId);
-        
-        AtomicBoolean isActive = new AtomicBoolean(true);
-        activeTimers.put(sessionId, isActive);
-        
+        RestTimer timer = new RestTimer(newTimerId(), sessionId, exerciseId, setNumber, totalSeconds,
+                System.nanoTime() + TimeUnit.SECONDS.toNanos(totalSeconds), -1);
+
+        // Replace any existing timer for this session
+        RestTimer previous = activeTimers.put(sessionId, timer);
+        if (previous != null) {
+            previous.cancel();
+        }
+        persist(timer);
+
         log.info("Starting rest timer for session {} - {} seconds", sessionId, totalSeconds);
-        
-        // Send start message
-        RestTimerMessage startMessage = RestTimerMessage.builder()
-                .sessionId(sessionId)
-                .remainingSeconds(totalSeconds)
-                .totalSeconds(totalSeconds)
-                .active(true)
-                .exerciseId(exerciseId)
-                .setNumber(setNumber)
-                .build();
-        
-        broadcastTimerMessage(sessionId, WebSocketMessage.MessageType.REST_TIMER_START, startMessage);
-        
-        // Countdown loop
-        for (int remaining = totalSeconds; remaining >= 0 && isActive.get(); remaining--) {
-            try {
-                RestTimerMessage tickMessage = RestTimerMessage.builder()
-                        .sessionId(sessionId)
-                        .remainingSeconds(remaining)
-                        .totalSeconds(totalSeconds)
-                        .active(true)
-                        .exerciseId(exerciseId)
-                        .setNumber(setNumber)
-                        .build();
-                
-                broadcastTimerMessage(sessionId, WebSocketMessage.MessageType.REST_TIMER_TICK, tickMessage);
-                
-                if (remaining > 0) {
-                    Thread.sleep(1000);
+
+        broadcastTimerMessage(sessionId, WebSocketMessage.MessageType.REST_TIMER_START, timer.snapshot(true));
+        arm(timer, true);
+    }
+
+    public void stopRestTimer(Long sessionId) {
+        RestTimer timer = activeTimers.remove(sessionId);
+        if (timer != null) {
+            timer.cancel();
+        }
+        boolean removed = claim(sessionId, null);
+        if (timer != null || removed) {
+            log.info("Stopped rest timer for session {}", sessionId);
+        }
+    }
+
+    public void pauseRestTimer(Long sessionId) {
+        RestTimer current = current(sessionId);
+        if (current == null || current.isPaused()) {
+            return;
+        }
+
+        RestTimer paused = current.withPausedRemaining(Math.max(0, current.remainingNanos()));
+        if (swap(sessionId, current, paused)) {
+            broadcastTimerMessage(sessionId, WebSocketMessage.MessageType.REST_TIMER_PAUSE, paused.snapshot(true));
+            log.info("Paused rest timer for session {}", sessionId);
+        }
+    }
+
+    public void resumeRestTimer(Long sessionId) {
+        RestTimer current = current(sessionId);
+        if (current == null || !current.isPaused()) {
+            return;
+        }
+
+        RestTimer resumed = current.withDeadline(System.nanoTime() + current.pausedRemainingNanos);
+        if (swap(sessionId, current, resumed)) {
+            broadcastTimerMessage(sessionId, WebSocketMessage.MessageType.REST_TIMER_ADJUST, resumed.snapshot(true));
+            arm(resumed, false);
+            log.info("Resumed rest timer for session {}", sessionId);
+        }
+    }
+
+    /**
+     * Add (or, with a negative value, take off) time from a running or paused timer
+     */
+    public void adjustRestTimer(Long sessionId, int deltaSeconds) {
+        RestTimer current = current(sessionId);
+        if (current == null) {
+            return;
+        }
+
+        long deltaNanos = TimeUnit.SECONDS.toNanos(deltaSeconds);
+        RestTimer adjusted = current.isPaused()
+                ? current.withPausedRemaining(Math.max(0, current.pausedRemainingNanos + deltaNanos))
+                : current.withDeadline(Math.max(System.nanoTime(), current.deadlineNanos + deltaNanos));
+        if (swap(sessionId, current, adjusted)) {
+            broadcastTimerMessage(sessionId, WebSocketMessage.MessageType.REST_TIMER_ADJUST, adjusted.snapshot(true));
+            arm(adjusted, false);
+            log.info("Adjusted rest timer for session {} by {} seconds", sessionId, deltaSeconds);
+        }
+    }
+
+    public boolean isTimerActive(Long sessionId) {
+        RestTimer timer = activeTimers.get(sessionId);
+        if (timer != null && !timer.isCancelled()) {
+            return true;
+        }
+        try {
+            return store.find(sessionId).isPresent();
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    /**
+     * End a timer the expiry poller claimed from the store
+     */
+    public void fireExpired(RestTimerStore.StoredTimer stored) {
+        RestTimer local = activeTimers.get(stored.sessionId());
+        if (local != null && local.id.equals(stored.timerId())) {
+            local.cancel();
+            activeTimers.remove(stored.sessionId(), local);
+        }
+        broadcastTimerMessage(stored.sessionId(), WebSocketMessage.MessageType.REST_TIMER_END,
+                fromStored(stored).snapshot(false));
+        log.info("Rest timer completed for session {} (expiry poller)", stored.sessionId());
+    }
+
+    /**
+     * Start or stop per-second ticks after a connection on any node subscribed to or
+     * left a session's ticks. Only the node running the current timer acts on it.
+     */
+    void tickSubscribersChanged(Long sessionId) {
+        RestTimer timer = activeTimers.get(sessionId);
+        if (timer == null || timer.isPaused() || timer.isCancelled()) {
+            return;
+        }
+        try {
+            Optional<RestTimerStore.StoredTimer> stored = store.find(sessionId);
+            if (stored.isEmpty() || !stored.get().timerId().equals(timer.id)) {
+                // Replaced, stopped or ended on another node; this copy must not tick
+                if (activeTimers.remove(sessionId, timer)) {
+                    timer.cancel();
                 }
-            } catch (InterruptedException e) {
-                log.debug("Rest timer interrupted for session {}", sessionId);
-                Thread.currentThread().interrupt();
-                break;
+                return;
             }
+        } catch (DataAccessException e) {
+            log.warn("Rest timer store unavailable, using local state: {}", e.getMessage());
         }
-        
-        // Send end message if timer completed naturally
-        if (isActive.get()) {
-            RestTimerMessage endMessage = RestTimerMessage.builder()
-                    .sessionId(sessionId)
-                    .remainingSeconds(0)
-                    .totalSeconds(totalSeconds)
-                    .active(false)
-                    .exerciseId(exerciseId)
-                    .setNumber(setNumber)
-                    .build();
-            
-            broadcastTimerMessage(sessionId, WebSocketMessage.MessageType.REST_TIMER_END, endMessage);
-            log.info("Rest timer completed for session {}", sessionId);
+
+        if (hasTickSubscribers(sessionId)) {
+            startTicks(timer, true);
+        } else {
+            timer.stopTicks();
         }
-        
-        activeTimers.remove(sessionId);
     }
 
-    public void stopRestTimer(Long sessionId) {
-        AtomicBoolean isActive = activeTimers.get(sessionId);
-        if (isActive != null) {
-            isActive.set(false);
-            activeTimers.remove(sessionId);
-            log.info("Stopped rest timer for session {}", sessionId);
+    /**
+     * The session's timer as the store sees it, reusing the local copy when it is
+     * still current. Falls back to the local copy if the store is unreachable.
+     */
+    private RestTimer current(Long sessionId) {
+        RestTimer local = activeTimers.get(sessionId);
+
+        Optional<RestTimerStore.StoredTimer> stored;
+        try {
+            stored = store.find(sessionId);
+        } catch (DataAccessException e) {
+            log.warn("Rest timer store unavailable, using local state: {}", e.getMessage());
+            return local;
         }
+
+        if (stored.isEmpty()) {
+            // Stopped or finished elsewhere
+            if (local != null && activeTimers.remove(sessionId, local)) {
+                local.cancel();
+            }
+            return null;
+        }
+        if (local != null && local.id.equals(stored.get().timerId())) {
+            return local;
+        }
+
+        // Changed on another node (or started before a restart) - adopt the stored state
+        RestTimer restored = fromStored(stored.get());
+        boolean installed = local == null
+                ? activeTimers.putIfAbsent(sessionId, restored) == null
+                : activeTimers.replace(sessionId, local, restored);
+        if (!installed) {
+            return activeTimers.get(sessionId);
+        }
+        if (local != null) {
+            local.cancel();
+        }
+        return restored;
     }
 
-    public boolean isTimerActive(Long sessionId) {
-        AtomicBoolean isActive = activeTimers.get(sessionId);
-        return isActive != null && isActive.get();
+    /**
+     * Replace a timer with its successor if nobody else changed it first
+     */
+    private boolean swap(Long sessionId, RestTimer current, RestTimer next) {
+        if (!activeTimers.replace(sessionId, current, next)) {
+            return false;
+        }
+        current.cancel();
+        persist(next);
+        return true;
+    }
+
+    private void persist(RestTimer timer) {
+        try {
+            store.save(toStored(timer));
+        } catch (DataAccessException e) {
+            // Keep counting down locally; only durability is lost
+            log.warn("Could not persist rest timer for session {}: {}", timer.sessionId, e.getMessage());
+        }
+    }
+
+    private boolean claim(Long sessionId, String timerId) {
+        try {
+            return store.claim(sessionId, timerId);
+        } catch (DataAccessException e) {
+            // Without the store this node's view is all we have
+            log.warn("Could not claim rest timer for session {}: {}", sessionId, e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * @param tickNow Send a TICK right away if anyone subscribes to ticks
+     */
+    private void arm(RestTimer timer, boolean tickNow) {
+        if (timer.isPaused()) {
+            return;
+        }
+
+        long remainingNanos = timer.remainingNanos();
+        if (remainingNanos <= 0) {
+            complete(timer);
+            return;
+        }
+
+        timer.schedule(scheduler.schedule(() -> expire(timer), remainingNanos, TimeUnit.NANOSECONDS));
+
+        long syncNanos = TimeUnit.SECONDS.toNanos(syncIntervalSeconds);
+        if (syncNanos > 0 && remainingNanos > syncNanos) {
+            timer.schedule(scheduler.scheduleAtFixedRate(
+                    () -> sync(timer), syncNanos, syncNanos, TimeUnit.NANOSECONDS));
+        }
+
+        if (hasTickSubscribers(timer.sessionId)) {
+            startTicks(timer, tickNow);
+        }
+    }
+
+    private void startTicks(RestTimer timer, boolean tickNow) {
+        long remainingNanos = timer.remainingNanos();
+        if (remainingNanos <= 0) {
+            return;
+        }
+        // Align ticks to whole seconds before the deadline; the expiry task sends the last one
+        long initialDelay = remainingNanos % TICK_NANOS == 0 ? TICK_NANOS : remainingNanos % TICK_NANOS;
+        boolean started = timer.startTicks(() -> scheduler.scheduleAtFixedRate(
+                () -> tick(timer), initialDelay, TICK_NANOS, TimeUnit.NANOSECONDS));
+        if (started && tickNow) {
+            broadcastTimerMessage(timer.sessionId, WebSocketMessage.MessageType.REST_TIMER_TICK, timer.snapshot(true));
+        }
+    }
+
+    private boolean hasTickSubscribers(Long sessionId) {
+        try {
+            return store.hasTickSubscribers(sessionId);
+        } catch (DataAccessException e) {
+            // Ticking for nobody is cheaper than a frozen countdown
+            log.warn("Could not read tick subscribers for session {}: {}", sessionId, e.getMessage());
+            return true;
+        }
+    }
+
+    private void tick(RestTimer timer) {
+        if (timer.isCancelled()) {
+            return;
+        }
+
+        long remainingNanos = timer.remainingNanos();
+        tickLag.record(Math.ceilDiv(remainingNanos, TICK_NANOS) * TICK_NANOS - remainingNanos, TimeUnit.NANOSECONDS);
+
+        try {
+            RestTimerMessage tickMessage = timer.snapshot(true);
+            if (tickMessage.getRemainingSeconds() > 0) {
+                broadcastTimerMessage(timer.sessionId, WebSocketMessage.MessageType.REST_TIMER_TICK, tickMessage);
+            }
+        } catch (RuntimeException e) {
+            // Never let one timer's failure kill the shared scheduler task
+            log.warn("Rest timer tick failed for session {}: {}", timer.sessionId, e.getMessage());
+        }
+    }
+
+    private void expire(RestTimer timer) {
+        try {
+            if (timer.isTicking()) {
+                broadcastTimerMessage(timer.sessionId, WebSocketMessage.MessageType.REST_TIMER_TICK,
+                        timer.snapshot(true));
+            }
+            complete(timer);
+        } catch (RuntimeException e) {
+            // The expiry poller ends the timer if this node could not
+            log.warn("Rest timer expiry failed for session {}: {}", timer.sessionId, e.getMessage());
+        }
+    }
+
+    private void sync(RestTimer timer) {
+        if (timer.isCancelled()) {
+            return;
+        }
+        try {
+            broadcastTimerMessage(timer.sessionId, WebSocketMessage.MessageType.REST_TIMER_SYNC, timer.snapshot(true));
+        } catch (RuntimeException e) {
+            log.warn("Rest timer sync failed for session {}: {}", timer.sessionId, e.getMessage());
+        }
+    }
+
+    private void complete(RestTimer timer) {
+        // Only the timer that is still current may clear the slot or announce the end
+        if (timer.cancel() && activeTimers.remove(timer.sessionId, timer) && claim(timer.sessionId, timer.id)) {
+            broadcastTimerMessage(timer.sessionId, WebSocketMessage.MessageType.REST_TIMER_END, timer.snapshot(false));
+            log.info("Rest timer completed for session {}", timer.sessionId);
+        }
     }
 
     private void broadcastTimerMessage(Long sessionId, WebSocketMessage.MessageType type, RestTimerMessage message) {
-        WebSocketMessage<RestTimerMessage> wsMessage = WebSocketMessage.of(type, message, sessionId);
-        messagingTemplate.convertAndSend("/topic/workout/" + sessionId, wsMessage);
+        Map<String, Object> headers = switch (type) {
+            case REST_TIMER_TICK, REST_TIMER_SYNC -> CONFLATE_HEADERS;
+            default -> null;
+        };
+        workoutStreamService.publish(sessionId, type, message, headers);
+    }
+
+    private static String newTimerId() {
+        return UUID.randomUUID().toString();
+    }
+
+    // Deadlines are monotonic nanos locally and epoch millis in the store
+    private static RestTimerStore.StoredTimer toStored(RestTimer timer) {
+        Long deadline = timer.isPaused()
+                ? null
+                : System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(timer.deadlineNanos - System.nanoTime());
+        long pausedRemainingMs = timer.isPaused() ? TimeUnit.NANOSECONDS.toMillis(timer.pausedRemainingNanos) : -1;
+        return new RestTimerStore.StoredTimer(timer.sessionId, timer.id, timer.exerciseId, timer.setNumber,
+                timer.totalSeconds, deadline, pausedRemainingMs);
+    }
+
+    private static RestTimer fromStored(RestTimerStore.StoredTimer stored) {
+        long deadlineNanos = stored.isPaused()
+                ? 0
+                : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(stored.deadline() - System.currentTimeMillis());
+        long pausedRemainingNanos = stored.isPaused() ? TimeUnit.MILLISECONDS.toNanos(stored.pausedRemainingMs()) : -1;
+        return new RestTimer(stored.timerId(), stored.sessionId(), stored.exerciseId(), stored.setNumber(),
+                stored.totalSeconds(), deadlineNanos, pausedRemainingNanos);
     }
-}
 
+    private static final class RestTimer {
+        final String id;
+        final Long sessionId;
+        final Long exerciseId;
+        final Integer setNumber;
+        final int totalSeconds;
+        // System.nanoTime() at which the timer runs out, meaningful while running
+        final long deadlineNanos;
+        // Time left when paused, -1 while running
+        final long pausedRemainingNanos;
+
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+        private volatile ScheduledFuture<?>[] futures = new ScheduledFuture<?>[0];
+        // Started and stopped with the session's tick subscribers, under this timer's lock
+        private ScheduledFuture<?> ticks;
+
+        RestTimer(String id, Long sessionId, Long exerciseId, Integer setNumber, int totalSeconds,
+                long deadlineNanos, long pausedRemainingNanos) {
+            this.id = id;
+            this.sessionId = sessionId;
+            this.exerciseId = exerciseId;
+            this.setNumber = setNumber;
+            this.totalSeconds = totalSeconds;
+            this.deadlineNanos = deadlineNanos;
+            this.pausedRemainingNanos = pausedRemainingNanos;
+        }
+
+        RestTimer withDeadline(long deadline) {
+            return new RestTimer(newTimerId(), sessionId, exerciseId, setNumber, totalSeconds, deadline, -1);
+        }
+
+        RestTimer withPausedRemaining(long remaining) {
+            return new RestTimer(newTimerId(), sessionId, exerciseId, setNumber, totalSeconds, deadlineNanos,
+                    remaining);
+        }
+
+        boolean isPaused() {
+            return pausedRemainingNanos >= 0;
+        }
+
+        long remainingNanos() {
+            return isPaused() ? pausedRemainingNanos : deadlineNanos - System.nanoTime();
+        }
+
+        // Called only by the thread arming the timer; a concurrent cancel() is caught by the re-check
+        void schedule(ScheduledFuture<?> scheduled) {
+            ScheduledFuture<?>[] current = futures;
+            ScheduledFuture<?>[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = scheduled;
+            futures = next;
+            // A stop may have raced with scheduling
+            if (cancelled.get()) {
+                scheduled.cancel(false);
+            }
+        }
+
+        /**
+         * @return true if this call cancelled the timer, false if it was already cancelled
+         */
+        boolean cancel() {
+            if (!cancelled.compareAndSet(false, true)) {
+                return false;
+            }
+            for (ScheduledFuture<?> scheduled : futures) {
+                scheduled.cancel(false);
+            }
+            stopTicks();
+            return true;
+        }
+
+        /**
+         * @return true if this call started the ticks, false if they already run or the timer is cancelled
+         */
+        synchronized boolean startTicks(Supplier<ScheduledFuture<?>> scheduler) {
+            if (ticks != null || cancelled.get()) {
+                return false;
+            }
+            ticks = scheduler.get();
+            return true;
+        }
+
+        synchronized void stopTicks() {
+            if (ticks != null) {
+                ticks.cancel(false);
+                ticks = null;
+            }
+        }
+
+        synchronized boolean isTicking() {
+            return ticks != null;
+        }
+
+        boolean isCancelled() {
+            return cancelled.get();
+        }
+
+        RestTimerMessage snapshot(boolean active) {
+            long remainingNanos = active ? Math.max(0, remainingNanos()) : 0;
+            long now = System.currentTimeMillis();
+            return RestTimerMessage.builder()
+                    .sessionId(sessionId)
+                    .remainingSeconds((int) Math.ceilDiv(remainingNanos, TICK_NANOS))
+                    .totalSeconds(totalSeconds)
+                    .active(active)
+                    .exerciseId(exerciseId)
+                    .setNumber(setNumber)
+                    .deadline(isPaused() ? null : now + TimeUnit.NANOSECONDS.toMillis(remainingNanos))
+                    .serverTime(now)
+                    .paused(isPaused())
+                    .build();
+        }
+    }
+}
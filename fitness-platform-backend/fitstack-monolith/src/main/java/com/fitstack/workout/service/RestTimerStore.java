@@ -0,0 +1,87 @@
+package com.fitstack.workout.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Shared, durable record of running rest timers, so timers survive restarts
+ * and any node can pause, adjust or stop a timer another node started.
+ *
+ * Every state change of a timer gets a fresh {@code timerId}; claiming a timer
+ * for completion only succeeds for the current one, so END fires exactly once.
+ * Selected with {@code workout.rest-timer.store} ({@code memory} or {@code redis}).
+ */
+public interface RestTimerStore {
+
+    /**
+     * Insert or replace the timer for a workout session
+     */
+    void save(StoredTimer timer);
+
+    Optional<StoredTimer> find(Long sessionId);
+
+    /**
+     * Remove a session's timer if it is still the given one (any timer if timerId is null)
+     *
+     * @return true if this call removed it
+     */
+    boolean claim(Long sessionId, String timerId);
+
+    /**
+     * Atomically remove and return up to {@code limit} running timers whose deadline is at or before {@code upToMillis}
+     */
+    List<StoredTimer> pollExpired(long upToMillis, int limit);
+
+    /**
+     * Take or renew the right to poll for expirations; only one node holds it at a time
+     */
+    boolean tryAcquirePollerLease(String nodeId, long leaseMillis);
+
+    /**
+     * Record how many of a node's connections subscribe to a session's per-second
+     * ticks, and tell every node's listeners that the session's subscribers changed
+     */
+    void saveTickSubscribers(Long sessionId, String nodeId, int count);
+
+    /**
+     * @return true if a connection on any node subscribes to the session's ticks
+     */
+    boolean hasTickSubscribers(Long sessionId);
+
+    /**
+     * Call {@code listener} with the session ID whenever any node saves tick subscribers
+     */
+    void onTickSubscribersChanged(Consumer<Long> listener);
+
+    /**
+     * @param deadline           Epoch ms the timer runs out, null while paused
+     * @param pausedRemainingMs  Time left when paused, -1 while running
+     */
+    record StoredTimer(Long sessionId, String timerId, Long exerciseId, Integer setNumber, int totalSeconds,
+                       Long deadline, long pausedRemainingMs) {
+
+        public boolean isPaused() {
+            return pausedRemainingMs >= 0;
+        }
+
+        String encode() {
+            return String.join("|", timerId, str(exerciseId), str(setNumber), String.valueOf(totalSeconds),
+                    str(deadline), String.valueOf(pausedRemainingMs));
+        }
+
+        static StoredTimer decode(Long sessionId, String value) {
+            String[] parts = value.split("\\|", -1);
+            return new StoredTimer(sessionId, parts[0],
+                    parts[1].isEmpty() ? null : Long.valueOf(parts[1]),
+                    parts[2].isEmpty() ? null : Integer.valueOf(parts[2]),
+                    Integer.parseInt(parts[3]),
+                    parts[4].isEmpty() ? null : Long.valueOf(parts[4]),
+                    Long.parseLong(parts[5]));
+        }
+
+        private static String str(Object value) {
+            return value == null ? "" : value.toString();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.fitstack.workout.service;
+
+import java.util.Arrays;
+
+/**
+ * A user's completed sets as parallel primitive columns, one row per set,
+ * ordered by session start and then completion time (each session's rows are
+ * contiguous). Weights are in hundredths, matching the numeric(6,2) column,
+ * and times are epoch microseconds of the stored local timestamp, so values
+ * round-trip exactly. Missing values are marked with the NO_* constants.
+ *
+ * Immutable once built; kernels read the columns directly.
+ */
+public final class TrainingHistory {
+
+    public static final int NO_WEIGHT = -1;
+    public static final int NO_REPS = -1;
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    private static final TrainingHistory EMPTY = new Builder(0).build();
+
+    final int size;
+    final long[] sessionIds;
+    final long[] exerciseIds;
+    final long[] completedAtMicros;
+    final int[] weightCentis;
+    final int[] reps;
+
+    private TrainingHistory(Builder builder) {
+        this.size = builder.size;
+        this.sessionIds = Arrays.copyOf(builder.sessionIds, size);
+        this.exerciseIds = Arrays.copyOf(builder.exerciseIds, size);
+        this.completedAtMicros = Arrays.copyOf(builder.completedAtMicros, size);
+        this.weightCentis = Arrays.copyOf(builder.weightCentis, size);
+        this.reps = Arrays.copyOf(builder.reps, size);
+    }
+
+    public static TrainingHistory empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public static final class Builder {
+
+        private int size;
+        private long[] sessionIds;
+        private long[] exerciseIds;
+        private long[] completedAtMicros;
+        private int[] weightCentis;
+        private int[] reps;
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            sessionIds = new long[capacity];
+            exerciseIds = new long[capacity];
+            completedAtMicros = new long[capacity];
+            weightCentis = new int[capacity];
+            reps = new int[capacity];
+        }
+
+        public Builder add(long sessionId, long exerciseId, long completedAtMicros, int weightCentis, int reps) {
+            if (size == sessionIds.length) {
+                grow();
+            }
+            this.sessionIds[size] = sessionId;
+            this.exerciseIds[size] = exerciseId;
+            this.completedAtMicros[size] = completedAtMicros;
+            this.weightCentis[size] = weightCentis;
+            this.reps[size] = reps;
+            size++;
+            return this;
+        }
+
+        public TrainingHistory build() {
+            return new TrainingHistory(this);
+        }
+
+        private void grow() {
+            int capacity = sessionIds.length * 2;
+            sessionIds = Arrays.copyOf(sessionIds, capacity);
+            exerciseIds = Arrays.copyOf(exerciseIds, capacity);
+            completedAtMicros = Arrays.copyOf(completedAtMicros, capacity);
+            weightCentis = Arrays.copyOf(weightCentis, capacity);
+            reps = Arrays.copyOf(reps, capacity);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.fitstack.workout.service;
+
+import com.fitstack.workout.entity.Exercise;
+import com.fitstack.workout.entity.UserExerciseStats;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * Analytics computed over a {@link TrainingHistory} in single passes of
+ * primitive arithmetic. Exercises are addressed by their index in the sorted
+ * distinct ids, so the loops neither box nor hash.
+ */
+final class TrainingHistoryKernels {
+
+    private static final int NONE = -1;
+
+    private TrainingHistoryKernels() {
+    }
+
+    /**
+     * Per-exercise bests and last-session averages, the same figures
+     * {@link ExerciseStatsService} folds in one session at a time
+     */
+    static List<UserExerciseStats> exerciseStats(Long userId, TrainingHistory history,
+            LongFunction<Exercise> exercises) {
+        long[] ids = Arrays.stream(history.exerciseIds, 0, history.size).distinct().sorted().toArray();
+        int n = ids.length;
+
+        int[] maxWeight = filled(n, NONE);
+        long[] maxWeightAt = filled(n, TrainingHistory.NO_TIME);
+        int[] maxReps = filled(n, NONE);
+        long[] maxVolume = filled(n, (long) NONE);
+        long[] bestOneRepMax = filled(n, (long) NONE);
+        long[] bestOneRepMaxAt = filled(n, TrainingHistory.NO_TIME);
+
+        long[] lastSessionId = filled(n, (long) NONE);
+        long[] lastSessionAt = filled(n, TrainingHistory.NO_TIME);
+        int[] lastSets = new int[n];
+        long[] lastWeightSum = new long[n];
+        long[] lastRepsSum = new long[n];
+        int[] lastRepsCount = new int[n];
+
+        for (int i = 0; i < history.size; i++) {
+            int e = Arrays.binarySearch(ids, history.exerciseIds[i]);
+            int weight = history.weightCentis[i];
+            int reps = history.reps[i];
+            long at = history.completedAtMicros[i];
+
+            // Rows are in session order, so a new session id replaces the last session
+            if (history.sessionIds[i] != lastSessionId[e]) {
+                lastSessionId[e] = history.sessionIds[i];
+                lastSessionAt[e] = TrainingHistory.NO_TIME;
+                lastSets[e] = 0;
+                lastWeightSum[e] = 0;
+                lastRepsSum[e] = 0;
+                lastRepsCount[e] = 0;
+            }
+            lastSets[e]++;
+            if (at > lastSessionAt[e]) {
+                lastSessionAt[e] = at;
+            }
+
+            if (weight != TrainingHistory.NO_WEIGHT) {
+                lastWeightSum[e] += weight;
+                if (weight > maxWeight[e]) {
+                    maxWeight[e] = weight;
+                    maxWeightAt[e] = at;
+                }
+            }
+            if (reps != TrainingHistory.NO_REPS) {
+                lastRepsSum[e] += reps;
+                lastRepsCount[e]++;
+                if (reps > maxReps[e]) {
+                    maxReps[e] = reps;
+                }
+            }
+            if (weight != TrainingHistory.NO_WEIGHT && reps != TrainingHistory.NO_REPS) {
+                long volume = (long) weight * reps;
+                if (volume > maxVolume[e]) {
+                    maxVolume[e] = volume;
+                }
+                long oneRepMax = oneRepMaxCentis(weight, reps);
+                if (oneRepMax > bestOneRepMax[e]) {
+                    bestOneRepMax[e] = oneRepMax;
+                    bestOneRepMaxAt[e] = at;
+                }
+            }
+        }
+
+        List<UserExerciseStats> stats = new ArrayList<>(n);
+        for (int e = 0; e < n; e++) {
+            stats.add(UserExerciseStats.builder()
+                    .userId(userId)
+                    .exercise(exercises.apply(ids[e]))
+                    .maxWeight(maxWeight[e] == NONE ? null : centis(maxWeight[e]))
+                    .maxWeightAt(time(maxWeightAt[e]))
+                    .maxReps(maxReps[e] == NONE ? null : maxReps[e])
+                    .maxVolume(maxVolume[e] == NONE ? null : centis(maxVolume[e]))
+                    .bestOneRepMax(bestOneRepMax[e] == NONE ? null : centis(bestOneRepMax[e]))
+                    .bestOneRepMaxAt(time(bestOneRepMaxAt[e]))
+                    .lastSessionId(lastSessionId[e])
+                    .lastSessionAt(time(lastSessionAt[e]))
+                    .lastSessionSets(lastSets[e])
+                    .lastSessionAvgWeight(centis(lastWeightSum[e])
+                            .divide(BigDecimal.valueOf(lastSets[e]), 2, RoundingMode.HALF_UP))
+                    .lastSessionAvgReps(lastRepsCount[e] > 0 ? (int) (lastRepsSum[e] / lastRepsCount[e]) : 0)
+                    .build());
+        }
+        return stats;
+    }
+
+    // Brzycki, w × 36 / (37 - r), rounded half-up to hundredths like the BigDecimal version
+    private static long oneRepMaxCentis(int weightCentis, int reps) {
+        if (weightCentis <= 0 || reps <= 0 || reps >= 37) {
+            return NONE;
+        }
+        long divisor = 37 - reps;
+        return (weightCentis * 36L * 2 + divisor) / (2 * divisor);
+    }
+
+    private static BigDecimal centis(long value) {
+        return BigDecimal.valueOf(value, 2);
+    }
+
+    private static LocalDateTime time(long micros) {
+        if (micros == TrainingHistory.NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+
+    private static int[] filled(int n, int value) {
+        int[] array = new int[n];
+        Arrays.fill(array, value);
+        return array;
+    }
+
+    private static long[] filled(int n, long value) {
+        long[] array = new long[n];
+        Arrays.fill(array, value);
+        return array;
+    }
+}
@@ -0,0 +1,54 @@
+package com.fitstack.workout.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Loads users' completed-set history into {@link TrainingHistory} columns with
+ * one narrow query.
+ */
+@Service
+@Slf4j
+public class TrainingHistoryLoader {
+
+    // Weights scaled and times converted in Postgres so rows map straight to columns
+    private static final String HISTORY_SQL = "SELECT ws.session_id, ws.exercise_id, "
+            + "CAST(EXTRACT(EPOCH FROM ws.completed_at) * 1000000 AS bigint) AS completed_at_micros, "
+            + "CAST(ROUND(ws.weight_used * 100) AS integer) AS weight_centis, ws.reps_completed "
+            + "FROM workout_sets ws JOIN workout_sessions s ON s.id = ws.session_id "
+            + "WHERE s.user_id = ? AND s.status = 'COMPLETED' "
+            + "ORDER BY s.started_at, ws.session_id, ws.completed_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TrainingHistoryLoader(@Qualifier("workoutsJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The user's history as of the current transaction
+     */
+    public TrainingHistory load(Long userId) {
+        TrainingHistory.Builder builder = new TrainingHistory.Builder(64);
+        jdbcTemplate.query(HISTORY_SQL, rs -> {
+            long completedAt = rs.getLong(3);
+            if (rs.wasNull()) {
+                completedAt = TrainingHistory.NO_TIME;
+            }
+            int weight = rs.getInt(4);
+            if (rs.wasNull()) {
+                weight = TrainingHistory.NO_WEIGHT;
+            }
+            int reps = rs.getInt(5);
+            if (rs.wasNull()) {
+                reps = TrainingHistory.NO_REPS;
+            }
+            builder.add(rs.getLong(1), rs.getLong(2), completedAt, weight, reps);
+        }, userId);
+        TrainingHistory history = builder.build();
+        log.debug("Loaded {} sets of training history for user {}", history.size(), userId);
+        return history;
+    }
+}
@@ -0,0 +1,34 @@
+package com.fitstack.workout.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the training rollups from existing history on startup. It is a no-op
+ * once every completed session is covered, so it only does work on the first
+ * deploy with rollups or after they were lost.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TrainingRollupBackfill implements CommandLineRunner {
+
+    private final TrainingRollupService rollupService;
+
+    @Value("${workout.rollups.backfill-on-startup:true}")
+    private boolean enabled;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        if (rollupService.backfill()) {
+            log.info("Backfilled training rollups in {} ms", System.currentTimeMillis() - started);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.fitstack.workout.service;
+
+import com.fitstack.workout.repository.TrainingRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps the weekly and per-exercise daily rollups in step with completed
+ * sessions, so frequency and volume analytics never read raw sets.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TrainingRollupService {
+
+    private final TrainingRollupRepository rollupRepository;
+
+    /**
+     * Add a just-completed session; the completion must already be flushed to
+     * the database, since the rollups aggregate it in SQL
+     */
+    @Transactional("workoutsTransactionManager")
+    public void recordSession(Long userId, Long sessionId) {
+        rollupRepository.addSession(userId, sessionId);
+    }
+
+    /**
+     * Recompute a user's rollups after their history was deleted or edited
+     */
+    @Transactional("workoutsTransactionManager")
+    public void rebuild(Long userId) {
+        rollupRepository.rebuildUser(userId);
+        log.debug("Rebuilt training rollups for user {}", userId);
+    }
+
+    @Transactional("workoutsTransactionManager")
+    public void deleteAll(Long userId) {
+        rollupRepository.deleteByUserId(userId);
+    }
+
+    @Transactional("workoutsTransactionManager")
+    public boolean backfill() {
+        return rollupRepository.backfillIfMissing();
+    }
+}
@@ -1,26 +1,31 @@
 package com.fitstack.workout.service;
 
+import com.fitstack.config.AnalyticsCache;
+import com.fitstack.config.AnalyticsDataChangedEvent;
+import com.fitstack.workout.dto.ExerciseDayVolume;
 import com.fitstack.workout.dto.PersonalRecordDto;
 import com.fitstack.workout.dto.ProgressiveOverloadDto;
 import com.fitstack.workout.dto.VolumeProgressionDto;
 import com.fitstack.workout.dto.WorkoutFrequencyDto;
 import com.fitstack.workout.entity.Exercise;
+import com.fitstack.workout.entity.UserExerciseStats;
+import com.fitstack.workout.entity.WeeklyTrainingRollup;
 import com.fitstack.workout.entity.WorkoutSession;
-import com.fitstack.workout.entity.WorkoutSet;
-import com.fitstack.workout.repository.ExerciseRepository;
+import com.fitstack.workout.repository.DailyExerciseRollupRepository;
+import com.fitstack.workout.repository.WeeklyTrainingRollupRepository;
 import com.fitstack.workout.repository.WorkoutSessionRepository;
 import com.fitstack.workout.repository.WorkoutSetRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAdjusters;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -30,109 +35,106 @@ import java.util.stream.Collectors;
 @Slf4j
 public class WorkoutAnalyticsService {
 
+    private static final TypeReference<List<WorkoutFrequencyDto>> FREQUENCY_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<List<VolumeProgressionDto>> VOLUME_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<List<PersonalRecordDto>> PERSONAL_RECORDS_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<List<ProgressiveOverloadDto>> OVERLOAD_TYPE = new TypeReference<>() {
+    };
+
     private final WorkoutSessionRepository sessionRepository;
     private final WorkoutSetRepository setRepository;
-    private final ExerciseRepository exerciseRepository;
+    private final WeeklyTrainingRollupRepository weeklyRollupRepository;
+    private final DailyExerciseRollupRepository dailyRollupRepository;
+    private final TrainingRollupService trainingRollupService;
+    private final AnalyticsCache analyticsCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExerciseStatsService exerciseStatsService;
 
     /**
      * Get workout frequency data (workouts per week)
      */
     public List<WorkoutFrequencyDto> getWorkoutFrequency(Long userId, LocalDateTime startDate, LocalDateTime endDate) {
-        List<WorkoutSession> sessions = sessionRepository.findByUserIdAndStatusAndStartedAtBetweenOrderByStartedAtAsc(
-                userId, WorkoutSession.SessionStatus.COMPLETED, startDate, endDate);
-
-        // Group by week
-        Map<LocalDate, List<WorkoutSession>> sessionsByWeek = new LinkedHashMap<>();
+        return analyticsCache.get(AnalyticsCache.Scope.WORKOUT, userId, "frequency",
+                startDate + ".." + endDate, FREQUENCY_TYPE,
+                () -> computeWorkoutFrequency(userId, startDate, endDate));
+    }
 
+    private List<WorkoutFrequencyDto> computeWorkoutFrequency(Long userId, LocalDateTime startDate, LocalDateTime endDate) {
         LocalDate currentWeekStart = startDate.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
         LocalDate endWeek = endDate.toLocalDate();
 
-        // Initialize all weeks in range
-        while (!currentWeekStart.isAfter(endWeek)) {
-            sessionsByWeek.put(currentWeekStart, new ArrayList<>());
-            currentWeekStart = currentWeekStart.plusWeeks(1);
-        }
-
-        // Populate with actual sessions
-        for (WorkoutSession session : sessions) {
-            LocalDate weekStart = session.getStartedAt().toLocalDate()
-                    .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
-            sessionsByWeek.computeIfAbsent(weekStart, k -> new ArrayList<>()).add(session);
-        }
+        Map<LocalDate, Integer> sessionsByWeek = weeklyRollupRepository
+                .findByUserIdAndWeekStartBetweenOrderByWeekStartAsc(userId, currentWeekStart, endWeek)
+                .stream()
+                .collect(Collectors.toMap(WeeklyTrainingRollup::getWeekStart, WeeklyTrainingRollup::getSessionCount));
 
         List<WorkoutFrequencyDto> frequencyData = new ArrayList<>();
         int weekNumber = 1;
 
-        for (Map.Entry<LocalDate, List<WorkoutSession>> entry : sessionsByWeek.entrySet()) {
+        // Every week in range, including those without workouts
+        while (!currentWeekStart.isAfter(endWeek)) {
             frequencyData.add(WorkoutFrequencyDto.builder()
-                    .date(entry.getKey())
-                    .workoutCount(entry.getValue().size())
+                    .date(currentWeekStart)
+                    .workoutCount(sessionsByWeek.getOrDefault(currentWeekStart, 0))
                     .weekNumber(weekNumber++)
-                    .weekLabel("Week of " + entry.getKey().format(DateTimeFormatter.ofPattern("MMM d")))
+                    .weekLabel("Week of " + currentWeekStart.format(DateTimeFormatter.ofPattern("MMM d")))
                     .build());
+            currentWeekStart = currentWeekStart.plusWeeks(1);
         }
 
         return frequencyData;
     }
 
     /**
-     * Get volume progression data
+     * Get volume progression data (one point per training day)
      */
     public List<VolumeProgressionDto> getVolumeProgression(Long userId, Long exerciseId, String period) {
-        LocalDateTime endDate = LocalDateTime.now();
-        LocalDateTime startDate = calculateStartDate(period);
+        return analyticsCache.get(AnalyticsCache.Scope.WORKOUT, userId, "volume",
+                exerciseId + ":" + period.toLowerCase(), VOLUME_TYPE,
+                () -> computeVolumeProgression(userId, exerciseId, period));
+    }
 
-        List<WorkoutSession> sessions = sessionRepository.findByUserIdAndStatusAndStartedAtBetweenOrderByStartedAtAsc(
-                userId, WorkoutSession.SessionStatus.COMPLETED, startDate, endDate);
+    private List<VolumeProgressionDto> computeVolumeProgression(Long userId, Long exerciseId, String period) {
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = calculateStartDate(period).toLocalDate();
 
-        if (sessions.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        List<Long> sessionIds = sessions.stream().map(WorkoutSession::getId).toList();
-        List<WorkoutSet> allSets = setRepository.findBySessionIdIn(sessionIds);
+        List<ExerciseDayVolume> rows = exerciseId != null
+                ? dailyRollupRepository.findVolumeByUserIdAndExerciseIdAndDayBetween(userId, exerciseId,
+                        startDate, endDate)
+                : dailyRollupRepository.findVolumeByUserIdAndDayBetween(userId, startDate, endDate);
 
-        // Group sets by session
-        Map<Long, List<WorkoutSet>> setsBySession = allSets.stream()
-                .collect(Collectors.groupingBy(ws -> ws.getSession().getId()));
+        // Rows arrive ordered by day
+        Map<LocalDate, List<ExerciseDayVolume>> rowsByDay = rows.stream()
+                .collect(Collectors.groupingBy(ExerciseDayVolume::getDay, LinkedHashMap::new, Collectors.toList()));
 
         List<VolumeProgressionDto> volumeData = new ArrayList<>();
 
-        for (WorkoutSession session : sessions) {
-            List<WorkoutSet> sessionSets = setsBySession.getOrDefault(session.getId(), new ArrayList<>());
-
-            // Filter by exercise if specified
-            if (exerciseId != null) {
-                sessionSets = sessionSets.stream()
-                        .filter(ws -> ws.getExercise().getId().equals(exerciseId))
-                        .toList();
-            }
-
-            if (sessionSets.isEmpty())
-                continue;
-
+        for (Map.Entry<LocalDate, List<ExerciseDayVolume>> entry : rowsByDay.entrySet()) {
             BigDecimal totalVolume = BigDecimal.ZERO;
-            int totalSets = sessionSets.size();
+            BigDecimal maxWeight = null;
+            int totalSets = 0;
             int totalReps = 0;
             Map<String, BigDecimal> exerciseBreakdown = new HashMap<>();
 
-            for (WorkoutSet set : sessionSets) {
-                if (set.getWeightUsed() != null && set.getRepsCompleted() != null) {
-                    BigDecimal setVolume = set.getWeightUsed()
-                            .multiply(BigDecimal.valueOf(set.getRepsCompleted()));
-                    totalVolume = totalVolume.add(setVolume);
-                    totalReps += set.getRepsCompleted();
-
-                    String exerciseName = set.getExercise().getName();
-                    exerciseBreakdown.merge(exerciseName, setVolume, BigDecimal::add);
+            for (ExerciseDayVolume row : entry.getValue()) {
+                totalVolume = totalVolume.add(row.getVolume());
+                totalSets += row.getSetCount().intValue();
+                totalReps += row.getTotalReps().intValue();
+                if (row.getMaxWeight() != null && (maxWeight == null || row.getMaxWeight().compareTo(maxWeight) > 0)) {
+                    maxWeight = row.getMaxWeight();
                 }
+                exerciseBreakdown.put(row.getExerciseName(), row.getVolume());
             }
 
             volumeData.add(VolumeProgressionDto.builder()
-                    .date(session.getStartedAt().toLocalDate())
+                    .date(entry.getKey())
                     .totalVolume(totalVolume)
                     .totalSets(totalSets)
                     .totalReps(totalReps)
+                    .maxWeight(maxWeight)
                     .exerciseBreakdown(exerciseBreakdown)
                     .build());
         }
@@ -144,61 +146,29 @@ public class WorkoutAnalyticsService {
      * Get personal records for all exercises
      */
     public List<PersonalRecordDto> getPersonalRecords(Long userId) {
-        List<Long> exerciseIds = setRepository.findDistinctExerciseIdsByUserId(userId);
+        return analyticsCache.get(AnalyticsCache.Scope.WORKOUT, userId, "personal-records",
+                "", PERSONAL_RECORDS_TYPE,
+                () -> computePersonalRecords(userId));
+    }
+
+    private List<PersonalRecordDto> computePersonalRecords(Long userId) {
         List<PersonalRecordDto> records = new ArrayList<>();
         LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
 
-        for (Long exerciseId : exerciseIds) {
-            Optional<Exercise> exerciseOpt = exerciseRepository.findById(exerciseId);
-            if (exerciseOpt.isEmpty())
-                continue;
-
-            Exercise exercise = exerciseOpt.get();
-            List<WorkoutSet> sets = setRepository.findRecentSetsByUserIdAndExerciseId(userId, exerciseId);
-
-            if (sets.isEmpty())
-                continue;
-
-            // Find max weight, max reps, max volume
-            BigDecimal maxWeight = BigDecimal.ZERO;
-            Integer maxReps = 0;
-            BigDecimal maxVolume = BigDecimal.ZERO;
-            LocalDateTime maxWeightDate = null;
-
-            for (WorkoutSet set : sets) {
-                if (set.getWeightUsed() != null && set.getWeightUsed().compareTo(maxWeight) > 0) {
-                    maxWeight = set.getWeightUsed();
-                    maxWeightDate = set.getCompletedAt();
-                }
-                if (set.getRepsCompleted() != null && set.getRepsCompleted() > maxReps) {
-                    maxReps = set.getRepsCompleted();
-                }
-                if (set.getWeightUsed() != null && set.getRepsCompleted() != null) {
-                    BigDecimal setVolume = set.getWeightUsed()
-                            .multiply(BigDecimal.valueOf(set.getRepsCompleted()));
-                    if (setVolume.compareTo(maxVolume) > 0) {
-                        maxVolume = setVolume;
-                    }
-                }
-            }
-
-            // Calculate estimated 1RM using Brzycki formula: 1RM = w × (36 / (37 - r))
-            BigDecimal estimated1RM = null;
-            if (maxWeight.compareTo(BigDecimal.ZERO) > 0 && maxReps > 0 && maxReps < 37) {
-                estimated1RM = maxWeight.multiply(BigDecimal.valueOf(36))
-                        .divide(BigDecimal.valueOf(37 - maxReps), 2, RoundingMode.HALF_UP);
-            }
-
+        for (UserExerciseStats stats : exerciseStatsService.getStats(userId)) {
+            Exercise exercise = stats.getExercise();
+            LocalDateTime maxWeightDate = stats.getMaxWeightAt();
             boolean isRecent = maxWeightDate != null && maxWeightDate.isAfter(thirtyDaysAgo);
 
             records.add(PersonalRecordDto.builder()
-                    .exerciseId(exerciseId)
+                    .exerciseId(exercise.getId())
                     .exerciseName(exercise.getName())
                     .muscleGroup(exercise.getMuscleGroup())
-                    .maxWeight(maxWeight)
-                    .maxReps(maxReps)
-                    .maxVolume(maxVolume)
-                    .estimatedOneRepMax(estimated1RM)
+                    .maxWeight(stats.getMaxWeight() != null ? stats.getMaxWeight() : BigDecimal.ZERO)
+                    .maxReps(stats.getMaxReps() != null ? stats.getMaxReps() : 0)
+                    .maxVolume(stats.getMaxVolume() != null ? stats.getMaxVolume() : BigDecimal.ZERO)
+                    .estimatedOneRepMax(stats.getBestOneRepMax())
+                    .estimatedOneRepMaxAt(stats.getBestOneRepMaxAt())
                     .achievedAt(maxWeightDate)
                     .isRecent(isRecent)
                     .build());
@@ -214,48 +184,21 @@ public class WorkoutAnalyticsService {
      * Get progressive overload suggestions
      */
     public List<ProgressiveOverloadDto> getProgressiveOverloadSuggestions(Long userId) {
-        List<Long> exerciseIds = setRepository.findDistinctExerciseIdsByUserId(userId);
-        List<ProgressiveOverloadDto> suggestions = new ArrayList<>();
-
-        for (Long exerciseId : exerciseIds) {
-            Optional<Exercise> exerciseOpt = exerciseRepository.findById(exerciseId);
-            if (exerciseOpt.isEmpty())
-                continue;
-
-            Exercise exercise = exerciseOpt.get();
-            List<WorkoutSet> recentSets = setRepository.findRecentSetsByUserIdAndExerciseId(userId, exerciseId);
-
-            if (recentSets.isEmpty())
-                continue;
+        return analyticsCache.get(AnalyticsCache.Scope.WORKOUT, userId, "progressive-overload",
+                "", OVERLOAD_TYPE,
+                () -> computeProgressiveOverloadSuggestions(userId));
+    }
 
-            // Get the most recent session's sets for this exercise
-            LocalDateTime mostRecentSession = recentSets.get(0).getCompletedAt();
-            List<WorkoutSet> lastSessionSets = recentSets.stream()
-                    .filter(s -> s.getCompletedAt() != null &&
-                            ChronoUnit.HOURS.between(s.getCompletedAt(), mostRecentSession) < 3)
-                    .toList();
+    private List<ProgressiveOverloadDto> computeProgressiveOverloadSuggestions(Long userId) {
+        List<ProgressiveOverloadDto> suggestions = new ArrayList<>();
 
-            if (lastSessionSets.isEmpty())
+        for (UserExerciseStats stats : exerciseStatsService.getStats(userId)) {
+            if (stats.getLastSessionSets() == null || stats.getLastSessionSets() == 0)
                 continue;
 
-            // Calculate averages from last session
-            BigDecimal avgWeight = lastSessionSets.stream()
-                    .filter(s -> s.getWeightUsed() != null)
-                    .map(WorkoutSet::getWeightUsed)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add)
-                    .divide(BigDecimal.valueOf(lastSessionSets.size()), 2, RoundingMode.HALF_UP);
-
-            int avgReps = (int) lastSessionSets.stream()
-                    .filter(s -> s.getRepsCompleted() != null)
-                    .mapToInt(WorkoutSet::getRepsCompleted)
-                    .average()
-                    .orElse(0);
-
-            int lastSets = lastSessionSets.size();
-
-            // Generate suggestion based on performance
-            ProgressiveOverloadDto suggestion = generateSuggestion(
-                    exercise, avgWeight, avgReps, lastSets);
+            // Generate suggestion based on the last session's averages
+            ProgressiveOverloadDto suggestion = generateSuggestion(stats.getExercise(),
+                    stats.getLastSessionAvgWeight(), stats.getLastSessionAvgReps(), stats.getLastSessionSets());
 
             if (suggestion != null) {
                 suggestions.add(suggestion);
@@ -362,6 +305,9 @@ public class WorkoutAnalyticsService {
 
         // Delete all sessions
         sessionRepository.deleteByUserId(userId);
+        exerciseStatsService.deleteAll(userId);
+        trainingRollupService.deleteAll(userId);
+        publishChange(userId);
 
         log.info("Cleared {} sessions for user {}", sessions.size(), userId);
     }
@@ -387,6 +333,9 @@ public class WorkoutAnalyticsService {
         if (!sessionIds.isEmpty()) {
             setRepository.deleteBySessionIdIn(sessionIds);
             sessionRepository.deleteAllById(sessionIds);
+            exerciseStatsService.rebuild(userId);
+            trainingRollupService.rebuild(userId);
+            publishChange(userId);
         }
 
         log.info("Cleared {} recent sessions for user {}", recentSessions.size(), userId);
@@ -414,7 +363,14 @@ public class WorkoutAnalyticsService {
 
         // Delete the session
         sessionRepository.deleteById(lastSession.getId());
+        exerciseStatsService.rebuild(userId);
+        trainingRollupService.rebuild(userId);
+        publishChange(userId);
 
         log.info("Cleared last session (ID: {}) for user {}", lastSession.getId(), userId);
     }
+
+    private void publishChange(Long userId) {
+        eventPublisher.publishEvent(new AnalyticsDataChangedEvent(userId, AnalyticsCache.Scope.WORKOUT));
+    }
 }
@@ -1,16 +1,30 @@
 package com.fitstack.workout.service;
 
+import com.fitstack.config.AnalyticsCache;
+import com.fitstack.config.AnalyticsDataChangedEvent;
 import com.fitstack.workout.dto.*;
 import com.fitstack.workout.entity.*;
 import com.fitstack.config.exception.BadRequestException;
 import com.fitstack.config.exception.NotFoundException;
 import com.fitstack.workout.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,11 +33,23 @@ public class WorkoutSessionService {
 
         private final WorkoutSessionRepository sessionRepository;
         private final WorkoutSetRepository setRepository;
+        private final WorkoutSetBatchRepository setBatchRepository;
         private final WorkoutTemplateRepository templateRepository;
         private final ExerciseRepository exerciseRepository;
         private final WorkoutPlanDayRepository planDayRepository;
         private final WorkoutTemplateService templateService;
         private final ExerciseService exerciseService;
+        private final ActiveSessionService activeSessionService;
+        private final ExerciseStatsService exerciseStatsService;
+        private final TrainingRollupService trainingRollupService;
+        private final WorkoutStreamService workoutStreamService;
+        private final ApplicationEventPublisher eventPublisher;
+
+        @Value("${workout.history.default-page-size:20}")
+        private int defaultHistoryPageSize;
+
+        @Value("${workout.history.max-page-size:100}")
+        private int maxHistoryPageSize;
 
         @Transactional("workoutsTransactionManager")
         public WorkoutSessionDto startSession(Long userId, StartSessionRequest request) {
@@ -61,29 +87,117 @@ public class WorkoutSessionService {
                 return toDtoWithPlanDay(session, planDay);
         }
 
-        @Transactional("workoutsTransactionManager")
+        /**
+         * Log a set against an in-progress session. The set is acknowledged as
+         * soon as it is journaled and written to the database shortly after.
+         */
         public WorkoutSetDto logSet(Long userId, Long sessionId, LogSetRequest request) {
-                WorkoutSession session = sessionRepository.findByIdAndUserId(sessionId, userId)
+                return activeSessionService.logSet(userId, sessionId, request);
+        }
+
+        /**
+         * Log many sets against one session in a single round of queries, for
+         * clients syncing a workout recorded offline. The session is checked
+         * once, exercises are loaded together and new sets are inserted in one
+         * JDBC batch. Sets whose clientId was already logged are reported as
+         * duplicates instead of inserted again, so a replayed upload is safe.
+         */
+        @Transactional("workoutsTransactionManager")
+        public BatchLogSetsResponse logSets(Long userId, Long sessionId, BatchLogSetsRequest request) {
+                // Locked so the session can't complete before these sets commit
+                WorkoutSession session = sessionRepository.findForShareByIdAndUserId(sessionId, userId)
                                 .orElseThrow(() -> new NotFoundException("Session not found"));
 
                 if (session.getStatus() != WorkoutSession.SessionStatus.IN_PROGRESS) {
                         throw new BadRequestException("Session is not in progress");
                 }
 
-                Exercise exercise = exerciseRepository.findById(request.getExerciseId())
-                                .orElseThrow(() -> new NotFoundException("Exercise not found"));
+                // Sets logged one at a time must be in the table for clientId checks
+                activeSessionService.flush(sessionId);
 
-                WorkoutSet set = WorkoutSet.builder()
-                                .session(session)
-                                .exercise(exercise)
-                                .setNumber(request.getSetNumber())
-                                .repsCompleted(request.getRepsCompleted())
-                                .weightUsed(request.getWeightUsed())
-                                .completedAt(LocalDateTime.now())
-                                .build();
+                List<LogSetRequest> items = request.getSets();
+
+                Set<String> clientIds = items.stream()
+                                .map(LogSetRequest::getClientId)
+                                .filter(id -> id != null)
+                                .collect(Collectors.toSet());
+                Map<String, WorkoutSet> setsByClientId = new HashMap<>();
+                if (!clientIds.isEmpty()) {
+                        setRepository.findBySessionIdAndClientIdIn(sessionId, clientIds)
+                                        .forEach(set -> setsByClientId.put(set.getClientId(), set));
+                }
+
+                Set<Long> exerciseIds = items.stream()
+                                .map(LogSetRequest::getExerciseId)
+                                .collect(Collectors.toSet());
+                Map<Long, Exercise> exercises = exerciseRepository.findAllById(exerciseIds).stream()
+                                .collect(Collectors.toMap(Exercise::getId, Function.identity()));
+
+                LocalDateTime now = LocalDateTime.now();
+                List<BatchLogSetsResponse.SetResult> results = new ArrayList<>(items.size());
+                List<WorkoutSet> toInsert = new ArrayList<>();
+                Map<Integer, WorkoutSet> insertedByIndex = new HashMap<>();
+                for (int i = 0; i < items.size(); i++) {
+                        LogSetRequest item = items.get(i);
+                        BatchLogSetsResponse.SetResult result = BatchLogSetsResponse.SetResult.builder()
+                                        .index(i)
+                                        .clientId(item.getClientId())
+                                        .build();
+                        results.add(result);
+
+                        // A clientId seen earlier, in the database or in this batch
+                        if (item.getClientId() != null && setsByClientId.containsKey(item.getClientId())) {
+                                result.setStatus(BatchLogSetsResponse.Status.DUPLICATE);
+                                continue;
+                        }
+
+                        Exercise exercise = exercises.get(item.getExerciseId());
+                        if (exercise == null) {
+                                result.setStatus(BatchLogSetsResponse.Status.REJECTED);
+                                result.setError("Exercise not found");
+                                continue;
+                        }
+
+                        WorkoutSet set = toSet(session, exercise, item, now);
+                        toInsert.add(set);
+                        insertedByIndex.put(i, set);
+                        if (item.getClientId() != null) {
+                                setsByClientId.put(item.getClientId(), set);
+                        }
+                        result.setStatus(BatchLogSetsResponse.Status.CREATED);
+                }
+
+                // A concurrent upload may have logged some of the same clientIds since the check above
+                List<WorkoutSet> conflicts = setBatchRepository.insertAll(toInsert);
+                if (!conflicts.isEmpty()) {
+                        Set<String> conflictIds = conflicts.stream()
+                                        .map(WorkoutSet::getClientId)
+                                        .collect(Collectors.toSet());
+                        setRepository.findBySessionIdAndClientIdIn(sessionId, conflictIds)
+                                        .forEach(set -> setsByClientId.put(set.getClientId(), set));
+                        results.stream()
+                                        .filter(result -> result.getStatus() == BatchLogSetsResponse.Status.CREATED
+                                                        && conflictIds.contains(result.getClientId()))
+                                        .forEach(result -> result.setStatus(BatchLogSetsResponse.Status.DUPLICATE));
+                }
 
-                set = setRepository.save(set);
-                return toSetDto(set);
+                // Fill in the sets once the new ones have IDs
+                for (BatchLogSetsResponse.SetResult result : results) {
+                        switch (result.getStatus()) {
+                                case CREATED -> result.setSet(toSetDto(insertedByIndex.get(result.getIndex())));
+                                case DUPLICATE -> result.setSet(toSetDto(setsByClientId.get(result.getClientId())));
+                                default -> {
+                                }
+                        }
+                }
+
+                return BatchLogSetsResponse.builder()
+                                .sessionId(sessionId)
+                                .created(countByStatus(results, BatchLogSetsResponse.Status.CREATED))
+                                .duplicates(countByStatus(results, BatchLogSetsResponse.Status.DUPLICATE))
+                                .rejected(countByStatus(results, BatchLogSetsResponse.Status.REJECTED))
+                                .results(results)
+                                .build();
         }
 
         @Transactional("workoutsTransactionManager")
@@ -101,7 +215,14 @@ public class WorkoutSessionService {
                         session.setNotes(request.getNotes());
                 }
 
-                session = sessionRepository.save(session);
+                // Flushed now: the rollups select COMPLETED sessions in plain SQL, and the row
+                // lock makes sets racing end() wait for this transaction
+                session = sessionRepository.saveAndFlush(session);
+                activeSessionService.end(sessionId);
+                workoutStreamService.endStream(sessionId);
+                exerciseStatsService.recordSession(userId, sessionId);
+                trainingRollupService.recordSession(userId, sessionId);
+                eventPublisher.publishEvent(new AnalyticsDataChangedEvent(userId, AnalyticsCache.Scope.WORKOUT));
                 return toDto(session);
         }
 
@@ -129,9 +250,135 @@ public class WorkoutSessionService {
                                 .collect(Collectors.toList());
         }
 
-        private WorkoutSessionDto toDto(WorkoutSession session) {
-                List<WorkoutSet> sets = setRepository.findBySessionIdOrderByCompletedAtAsc(session.getId());
+        /**
+         * A page of history, newest first, keyed on (startedAt, id) so deep pages
+         * cost the same as the first. Sets for the whole page come from one query;
+         * in summary mode they are skipped and {@code sets} is null.
+         */
+        @Transactional(value = "workoutsTransactionManager", readOnly = true)
+        public WorkoutHistoryPage getHistoryPage(Long userId, String cursor, Integer size, boolean summary) {
+                int pageSize = size == null ? defaultHistoryPageSize : Math.max(1, Math.min(size, maxHistoryPageSize));
+                // One extra row tells whether there is a next page
+                Limit limit = Limit.of(pageSize + 1);
+
+                List<WorkoutSession> sessions;
+                if (cursor == null || cursor.isBlank()) {
+                        sessions = sessionRepository.findHistoryPage(userId, limit);
+                } else {
+                        HistoryCursor after = decodeCursor(cursor);
+                        sessions = sessionRepository.findHistoryPageAfter(userId, after.startedAt(), after.id(), limit);
+                }
+
+                String nextCursor = null;
+                if (sessions.size() > pageSize) {
+                        sessions = sessions.subList(0, pageSize);
+                        nextCursor = encodeCursor(sessions.get(pageSize - 1));
+                }
+
+                Map<Long, List<WorkoutSetDto>> setsBySession = summary ? Map.of() : loadSets(sessions);
+
+                List<WorkoutSessionDto> dtos = sessions.stream()
+                                .map(session -> toHistoryDto(session,
+                                                summary ? null : setsBySession.getOrDefault(session.getId(), List.of())))
+                                .collect(Collectors.toList());
+                return WorkoutHistoryPage.builder()
+                                .sessions(dtos)
+                                .nextCursor(nextCursor)
+                                .build();
+        }
 
+        private Map<Long, List<WorkoutSetDto>> loadSets(List<WorkoutSession> sessions) {
+                if (sessions.isEmpty()) {
+                        return Map.of();
+                }
+
+                // Sets logged moments ago may still be waiting to be written behind
+                Map<Long, List<WorkoutSetDto>> pending = new HashMap<>();
+                sessions.forEach(session -> pending.put(session.getId(), pendingSets(session)));
+
+                List<Long> sessionIds = sessions.stream().map(WorkoutSession::getId).toList();
+                Map<Long, List<WorkoutSetDto>> setsBySession = setRepository.findWithExerciseBySessionIdIn(sessionIds)
+                                .stream()
+                                .map(this::toSetDto)
+                                .collect(Collectors.groupingBy(WorkoutSetDto::getSessionId));
+                pending.forEach((sessionId, sets) -> {
+                        if (!sets.isEmpty()) {
+                                setsBySession.put(sessionId,
+                                                merge(setsBySession.getOrDefault(sessionId, List.of()), sets));
+                        }
+                });
+                return setsBySession;
+        }
+
+        /**
+         * Sets of a session in logging order, including ones not yet written behind
+         */
+        private List<WorkoutSetDto> loggedSets(WorkoutSession session) {
+                List<WorkoutSetDto> pending = pendingSets(session);
+                List<WorkoutSetDto> sets = setRepository.findBySessionIdOrderByCompletedAtAsc(session.getId()).stream()
+                                .map(this::toSetDto)
+                                .collect(Collectors.toList());
+                return pending.isEmpty() ? sets : merge(sets, pending);
+        }
+
+        // Read before the table: a set flushed in between is then in both, never in neither
+        private List<WorkoutSetDto> pendingSets(WorkoutSession session) {
+                return session.getStatus() == WorkoutSession.SessionStatus.IN_PROGRESS
+                                ? activeSessionService.findPendingSets(session.getId())
+                                : List.of();
+        }
+
+        private List<WorkoutSetDto> merge(List<WorkoutSetDto> stored, List<WorkoutSetDto> pending) {
+                Set<Long> storedIds = stored.stream().map(WorkoutSetDto::getId).collect(Collectors.toSet());
+                List<WorkoutSetDto> sets = new ArrayList<>(stored);
+                pending.stream().filter(set -> !storedIds.contains(set.getId())).forEach(sets::add);
+                sets.sort(Comparator.comparing(WorkoutSetDto::getCompletedAt,
+                                Comparator.nullsLast(Comparator.naturalOrder())));
+                return sets;
+        }
+
+        /**
+         * Session without the template's exercise list, which history doesn't show
+         */
+        private WorkoutSessionDto toHistoryDto(WorkoutSession session, List<WorkoutSetDto> sets) {
+                WorkoutTemplate template = session.getTemplate();
+                return WorkoutSessionDto.builder()
+                                .id(session.getId())
+                                .userId(session.getUserId())
+                                .templateId(template != null ? template.getId() : null)
+                                .template(template != null ? WorkoutTemplateDto.builder()
+                                                .id(template.getId())
+                                                .name(template.getName())
+                                                .build() : null)
+                                .planDayId(session.getPlanDayId())
+                                .startedAt(session.getStartedAt())
+                                .completedAt(session.getCompletedAt())
+                                .status(session.getStatus())
+                                .notes(session.getNotes())
+                                .sets(sets)
+                                .build();
+        }
+
+        private String encodeCursor(WorkoutSession session) {
+                String position = session.getStartedAt() + "|" + session.getId();
+                return Base64.getUrlEncoder().withoutPadding()
+                                .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private HistoryCursor decodeCursor(String cursor) {
+                try {
+                        String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                                        .split("\\|");
+                        return new HistoryCursor(LocalDateTime.parse(position[0]), Long.valueOf(position[1]));
+                } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                        throw new BadRequestException("Invalid history cursor");
+                }
+        }
+
+        private record HistoryCursor(LocalDateTime startedAt, Long id) {
+        }
+
+        private WorkoutSessionDto toDto(WorkoutSession session) {
                 return WorkoutSessionDto.builder()
                                 .id(session.getId())
                                 .userId(session.getUserId())
@@ -142,7 +389,7 @@ public class WorkoutSessionService {
                                 .completedAt(session.getCompletedAt())
                                 .status(session.getStatus())
                                 .notes(session.getNotes())
-                                .sets(sets.stream().map(this::toSetDto).collect(Collectors.toList()))
+                                .sets(loggedSets(session))
                                 .build();
         }
 
@@ -167,8 +414,6 @@ public class WorkoutSessionService {
          * Used when fetching an existing session.
          */
         private WorkoutSessionDto toDtoWithPlanDayAndSets(WorkoutSession session, WorkoutPlanDay planDay) {
-                List<WorkoutSet> sets = setRepository.findBySessionIdOrderByCompletedAtAsc(session.getId());
-
                 return WorkoutSessionDto.builder()
                                 .id(session.getId())
                                 .userId(session.getUserId())
@@ -182,7 +427,7 @@ public class WorkoutSessionService {
                                 .completedAt(session.getCompletedAt())
                                 .status(session.getStatus())
                                 .notes(session.getNotes())
-                                .sets(sets.stream().map(this::toSetDto).collect(Collectors.toList()))
+                                .sets(loggedSets(session))
                                 .build();
         }
 
@@ -200,6 +445,23 @@ public class WorkoutSessionService {
                                 .build();
         }
 
+        private WorkoutSet toSet(WorkoutSession session, Exercise exercise, LogSetRequest request,
+                        LocalDateTime completedAt) {
+                return WorkoutSet.builder()
+                                .session(session)
+                                .exercise(exercise)
+                                .setNumber(request.getSetNumber())
+                                .repsCompleted(request.getRepsCompleted())
+                                .weightUsed(request.getWeightUsed())
+                                .completedAt(completedAt)
+                                .clientId(request.getClientId())
+                                .build();
+        }
+
+        private int countByStatus(List<BatchLogSetsResponse.SetResult> results, BatchLogSetsResponse.Status status) {
+                return (int) results.stream().filter(result -> result.getStatus() == status).count();
+        }
+
         private WorkoutSetDto toSetDto(WorkoutSet set) {
                 return WorkoutSetDto.builder()
                                 .id(set.getId())
@@ -210,6 +472,7 @@ public class WorkoutSessionService {
                                 .repsCompleted(set.getRepsCompleted())
                                 .weightUsed(set.getWeightUsed())
                                 .completedAt(set.getCompletedAt())
+                                .clientId(set.getClientId())
                                 .build();
         }
 }
@@ -0,0 +1,177 @@
+package com.fitstack.workout.service;
+
+import com.fitstack.workout.config.WebSocketBrokerProperties;
+import com.fitstack.workout.dto.ReplayResponse;
+import com.fitstack.workout.dto.WebSocketMessage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Publishes everything sent to /topic/workout/{sessionId} and keeps a short
+ * replay buffer per active session, so a reconnecting client can catch up on
+ * what it missed instead of reloading the whole session.
+ *
+ * Messages get a per-session sequence number, stamped with the ID of the
+ * stream (buffer) that issued it. A client resuming against a different stream
+ * - after a restart, or on another node - gets {@code complete=false} and
+ * falls back to a full reload. Timer ticks and syncs are superseded by the
+ * next one, so they are neither sequenced nor buffered. They also go to their
+ * own destinations, /topic/workout/{sessionId}/ticks and .../sync, so a client
+ * only receives the periodic frames it subscribes to.
+ *
+ * Sequencing and replay are only enabled with the SIMPLE broker. With RELAY or
+ * REDIS, subscribers receive messages published by every node, and per-node
+ * counters would interleave into false gaps; messages go out unsequenced and
+ * a resuming client is always told to reload.
+ */
+@Service
+public class WorkoutStreamService {
+
+    public static final String DESTINATION_PREFIX = "/topic/workout/";
+    public static final String TICKS_SUFFIX = "/ticks";
+    public static final String SYNC_SUFFIX = "/sync";
+
+    private static final Set<WebSocketMessage.MessageType> TRANSIENT_TYPES = Set.of(
+            WebSocketMessage.MessageType.REST_TIMER_TICK,
+            WebSocketMessage.MessageType.REST_TIMER_SYNC);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Cache<Long, ReplayBuffer> buffers;
+    private final int replayCapacity;
+    private final boolean replayEnabled;
+
+    public WorkoutStreamService(
+            SimpMessagingTemplate messagingTemplate,
+            WebSocketBrokerProperties brokerProperties,
+            @Value("${workout.stream.replay-capacity:256}") int replayCapacity,
+            @Value("${workout.stream.max-sessions:10000}") long maxSessions,
+            @Value("${workout.stream.idle-minutes:240}") long idleMinutes) {
+        this.messagingTemplate = messagingTemplate;
+        this.replayCapacity = replayCapacity;
+        this.replayEnabled = brokerProperties.getMode() == WebSocketBrokerProperties.Mode.SIMPLE;
+        this.buffers = Caffeine.newBuilder()
+                .maximumSize(maxSessions)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+    }
+
+    public <T> void publish(Long sessionId, WebSocketMessage.MessageType type, T payload) {
+        publish(sessionId, type, payload, null);
+    }
+
+    /**
+     * @param headers Extra STOMP headers for the frame, may be null
+     */
+    public <T> void publish(Long sessionId, WebSocketMessage.MessageType type, T payload,
+            Map<String, Object> headers) {
+        String destination = DESTINATION_PREFIX + sessionId + switch (type) {
+            case REST_TIMER_TICK -> TICKS_SUFFIX;
+            case REST_TIMER_SYNC -> SYNC_SUFFIX;
+            default -> "";
+        };
+        WebSocketMessage<T> message = WebSocketMessage.of(type, payload, sessionId);
+
+        if (!replayEnabled || TRANSIENT_TYPES.contains(type)) {
+            messagingTemplate.convertAndSend(destination, message, headers);
+            return;
+        }
+
+        ReplayBuffer buffer = buffers.get(sessionId, id -> new ReplayBuffer(replayCapacity));
+        // Sequence and send under the buffer lock so the broker sees messages in sequence order
+        synchronized (buffer) {
+            buffer.append(message);
+            messagingTemplate.convertAndSend(destination, message, headers);
+        }
+    }
+
+    /**
+     * Messages after {@code lastSeq} in {@code streamId}, for a client resuming its subscription
+     */
+    public ReplayResponse replay(Long sessionId, Long streamId, Long lastSeq) {
+        if (!replayEnabled) {
+            return ReplayResponse.builder()
+                    .sessionId(sessionId)
+                    .latestSeq(0L)
+                    .complete(false)
+                    .messages(List.of())
+                    .build();
+        }
+
+        ReplayBuffer buffer = buffers.getIfPresent(sessionId);
+        if (buffer == null) {
+            // Nothing published since startup (or the session went idle) - nothing to miss on this node
+            return ReplayResponse.builder()
+                    .sessionId(sessionId)
+                    .latestSeq(0L)
+                    .complete(streamId == null)
+                    .messages(List.of())
+                    .build();
+        }
+
+        synchronized (buffer) {
+            boolean sameStream = streamId != null && streamId == buffer.streamId;
+            long from = lastSeq != null && sameStream ? lastSeq : 0;
+            return ReplayResponse.builder()
+                    .sessionId(sessionId)
+                    .streamId(buffer.streamId)
+                    .latestSeq(buffer.lastSeq)
+                    // Complete if everything after 'from' is still buffered and the client is on this stream
+                    .complete((sameStream || streamId == null) && from >= buffer.evictedUpTo)
+                    .messages(buffer.since(from))
+                    .build();
+        }
+    }
+
+    /**
+     * Drop a finished session's replay buffer; a client resuming it reloads instead
+     */
+    public void endStream(Long sessionId) {
+        buffers.invalidate(sessionId);
+    }
+
+    /**
+     * Fixed-size ring of the most recent sequenced messages; callers hold its lock
+     */
+    private static final class ReplayBuffer {
+        final long streamId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        final WebSocketMessage<?>[] ring;
+        long lastSeq;
+        // Highest sequence number that has fallen out of the ring
+        long evictedUpTo;
+
+        ReplayBuffer(int capacity) {
+            this.ring = new WebSocketMessage<?>[capacity];
+        }
+
+        void append(WebSocketMessage<?> message) {
+            long seq = ++lastSeq;
+            message.setSeq(seq);
+            message.setStreamId(streamId);
+
+            int slot = (int) ((seq - 1) % ring.length);
+            if (ring[slot] != null) {
+                evictedUpTo = ring[slot].getSeq();
+            }
+            ring[slot] = message;
+        }
+
+        List<WebSocketMessage<?>> since(long seq) {
+            long first = Math.max(seq + 1, evictedUpTo + 1);
+            List<WebSocketMessage<?>> missed = new ArrayList<>((int) Math.max(0, lastSeq - first + 1));
+            for (long s = first; s <= lastSeq; s++) {
+                missed.add(ring[(int) ((s - 1) % ring.length)]);
+            }
+            return missed;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+-- Record an unflushed workout set and index its session, if the session is still active
+-- and no set with the same client ID was recorded for it.
+--
+-- KEYS[1] pending sets of the session (hash, field = set ID, value = encoded set)
+-- KEYS[2] index of sessions with pending sets
+-- KEYS[3] active session
+-- KEYS[4] client IDs of the session (hash, field = client ID, value = set ID)
+-- ARGV[1] session ID
+-- ARGV[2] set ID
+-- ARGV[3] encoded set
+-- ARGV[4] client ID, or empty
+-- ARGV[5] client ID index TTL (ms)
+--
+-- Returns the ID of the set recorded under the client ID (this set's, or the earlier
+-- one's), this set's ID if it has no client ID, or 0 if the session is not active
+
+if redis.call('EXISTS', KEYS[3]) == 0 then
+    return 0
+end
+if ARGV[4] ~= '' then
+    if redis.call('HSETNX', KEYS[4], ARGV[4], ARGV[2]) == 0 then
+        return tonumber(redis.call('HGET', KEYS[4], ARGV[4]))
+    end
+    redis.call('PEXPIRE', KEYS[4], ARGV[5])
+end
+redis.call('HSET', KEYS[1], ARGV[2], ARGV[3])
+redis.call('SADD', KEYS[2], ARGV[1])
+return tonumber(ARGV[2])
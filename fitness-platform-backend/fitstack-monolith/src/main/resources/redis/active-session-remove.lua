@@ -0,0 +1,17 @@
+-- Drop flushed workout sets, unindexing the session once none are left.
+--
+-- KEYS[1] pending sets of the session
+-- KEYS[2] index of sessions with pending sets
+-- ARGV[1] session ID
+-- ARGV[2..n] flushed set IDs
+--
+-- Returns the number of sets still pending for the session
+
+for i = 2, #ARGV do
+    redis.call('HDEL', KEYS[1], ARGV[i])
+end
+local remaining = redis.call('HLEN', KEYS[1])
+if remaining == 0 then
+    redis.call('SREM', KEYS[2], ARGV[1])
+end
+return remaining
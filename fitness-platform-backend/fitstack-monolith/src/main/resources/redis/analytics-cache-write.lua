@@ -0,0 +1,18 @@
+-- Cache an analytics response unless the user's data changed since it was computed.
+--
+-- KEYS[1] cached responses of the user for the scope (hash)
+-- KEYS[2] generation of the user's data for the scope, bumped on every change
+-- ARGV[1] field
+-- ARGV[2] value ("storedAtMillis|json")
+-- ARGV[3] TTL of the hash (seconds)
+-- ARGV[4] generation read before computing the response, or empty if there was none
+--
+-- Returns 1 if cached, 0 if the data changed meanwhile
+
+local generation = redis.call('GET', KEYS[2]) or ''
+if generation ~= ARGV[4] then
+    return 0
+end
+redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+redis.call('EXPIRE', KEYS[1], ARGV[3])
+return 1
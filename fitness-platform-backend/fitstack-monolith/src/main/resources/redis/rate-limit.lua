@@ -0,0 +1,32 @@
+-- Sliding-window failed-attempt limiter with lockout, executed atomically.
+--
+-- KEYS[1] attempts window (sorted set, score = attempt time in ms)
+-- KEYS[2] lockout marker
+-- ARGV[1] now (ms)
+-- ARGV[2] window (ms)
+-- ARGV[3] max attempts inside the window
+-- ARGV[4] lockout (seconds)
+-- ARGV[5] unique member for this attempt
+--
+-- Returns { attempts in window, lockout seconds remaining (0 if not locked) }
+
+local ttl = redis.call('TTL', KEYS[2])
+if ttl > 0 then
+    return { redis.call('ZCARD', KEYS[1]), ttl }
+end
+
+local now = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - window)
+redis.call('ZADD', KEYS[1], now, ARGV[5])
+redis.call('PEXPIRE', KEYS[1], window)
+
+local attempts = redis.call('ZCARD', KEYS[1])
+if attempts >= tonumber(ARGV[3]) then
+    local lockout = tonumber(ARGV[4])
+    redis.call('SET', KEYS[2], ARGV[1], 'EX', lockout)
+    return { attempts, lockout }
+end
+
+return { attempts, 0 }
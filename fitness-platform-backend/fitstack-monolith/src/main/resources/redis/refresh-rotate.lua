@@ -0,0 +1,15 @@
+-- Refresh-token rotation, executed atomically.
+--
+-- KEYS[1] the user's refresh-token key (holds the hash of the live token)
+-- ARGV[1] hash of the presented token
+-- ARGV[2] hash of the replacement token
+-- ARGV[3] replacement lifetime (ms)
+--
+-- Returns 1 if the presented token was live and has been replaced, 0 otherwise
+
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    return 0
+end
+
+redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+return 1
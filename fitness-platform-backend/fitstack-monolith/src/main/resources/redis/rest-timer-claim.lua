@@ -0,0 +1,22 @@
+-- Remove a rest timer if it is still the expected one.
+--
+-- KEYS[1] timer key (encoded timer string, starting with "<timerId>|")
+-- KEYS[2] deadline index
+-- ARGV[1] session ID
+-- ARGV[2] expected timer ID, or empty to remove whatever is there
+--
+-- Returns 1 if this call removed the timer, 0 otherwise
+
+local value = redis.call('GET', KEYS[1])
+if not value then
+    redis.call('ZREM', KEYS[2], ARGV[1])
+    return 0
+end
+
+if ARGV[2] ~= '' and string.sub(value, 1, #ARGV[2] + 1) ~= ARGV[2] .. '|' then
+    return 0
+end
+
+redis.call('DEL', KEYS[1])
+redis.call('ZREM', KEYS[2], ARGV[1])
+return 1
@@ -0,0 +1,16 @@
+-- Acquire or renew a single-holder lease (rest-timer poller, active-session flusher).
+--
+-- KEYS[1] lease key
+-- ARGV[1] node ID
+-- ARGV[2] lease duration (ms)
+--
+-- Returns 1 if the caller holds the lease, 0 otherwise
+
+if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+    return 1
+end
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    redis.call('PEXPIRE', KEYS[1], ARGV[2])
+    return 1
+end
+return 0
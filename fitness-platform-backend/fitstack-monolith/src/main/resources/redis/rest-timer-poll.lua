@@ -0,0 +1,23 @@
+-- Claim a batch of expired rest timers, atomically.
+--
+-- KEYS[1] deadline index
+-- ARGV[1] claim timers with deadline at or before this (ms)
+-- ARGV[2] batch size
+-- ARGV[3] timer key prefix (timer keys are derived, so this needs a
+--         non-cluster Redis or all keys on one slot)
+--
+-- Returns flat pairs { sessionId, encodedTimer, ... }
+
+local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+local claimed = {}
+for _, sessionId in ipairs(due) do
+    redis.call('ZREM', KEYS[1], sessionId)
+    local key = ARGV[3] .. sessionId
+    local value = redis.call('GET', key)
+    if value then
+        redis.call('DEL', key)
+        claimed[#claimed + 1] = sessionId
+        claimed[#claimed + 1] = value
+    end
+end
+return claimed
@@ -0,0 +1,16 @@
+-- Store a rest timer and index or unindex its deadline, atomically.
+--
+-- KEYS[1] timer key (encoded timer string)
+-- KEYS[2] deadline index (sorted set, member = session ID, score = deadline ms)
+-- ARGV[1] session ID
+-- ARGV[2] encoded timer
+-- ARGV[3] key TTL (ms)
+-- ARGV[4] deadline (ms), or empty for a paused timer
+
+redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+if ARGV[4] == '' then
+    redis.call('ZREM', KEYS[2], ARGV[1])
+else
+    redis.call('ZADD', KEYS[2], ARGV[4], ARGV[1])
+end
+return 1
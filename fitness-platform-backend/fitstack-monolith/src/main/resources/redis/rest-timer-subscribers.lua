@@ -0,0 +1,19 @@
+-- Set or clear one node's tick-subscriber count for a session, then announce the change.
+--
+-- KEYS[1] subscriber hash (field = node ID, value = subscriptions on that node)
+-- ARGV[1] node ID
+-- ARGV[2] subscription count, 0 to clear
+-- ARGV[3] key TTL (ms)
+-- ARGV[4] change channel
+-- ARGV[5] session ID
+--
+-- Returns 1
+
+if tonumber(ARGV[2]) > 0 then
+    redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+    redis.call('PEXPIRE', KEYS[1], ARGV[3])
+else
+    redis.call('HDEL', KEYS[1], ARGV[1])
+end
+redis.call('PUBLISH', ARGV[4], ARGV[5])
+return 1
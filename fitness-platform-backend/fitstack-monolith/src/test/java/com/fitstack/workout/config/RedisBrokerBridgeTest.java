@@ -0,0 +1,72 @@
+package com.fitstack.workout.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisBrokerBridgeTest {
+
+    private static final String TICKS = "/topic/workout/7/ticks";
+
+    private final SimpMessagingTemplate templateB = mock(SimpMessagingTemplate.class);
+
+    private final RedisBrokerBridge nodeA = bridge(mock(SimpMessagingTemplate.class));
+    private final RedisBrokerBridge nodeB = bridge(templateB);
+
+    @Test
+    void tickFramesKeepTheirHeadersAcrossNodes() {
+        byte[] body = "{\"type\":\"REST_TIMER_TICK\"}".getBytes(StandardCharsets.UTF_8);
+        byte[] frame = nodeA.encode(TICKS, "application/json", Map.of(
+                "x-conflate", List.of("rest-timer"),
+                WebSocketFanoutMetrics.PUBLISHED_AT_HEADER, List.of("1767637800000")), body);
+
+        nodeB.receive(frame);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<byte[]>> sent = ArgumentCaptor.forClass(Message.class);
+        verify(templateB).send(eq(TICKS), sent.capture());
+        Message<byte[]> message = sent.getValue();
+        assertThat(message.getPayload()).isEqualTo(body);
+        assertThat(SimpMessageHeaderAccessor.getDestination(message.getHeaders())).isEqualTo(TICKS);
+        assertThat(SimpMessageHeaderAccessor.getFirstNativeHeader("x-conflate", message.getHeaders()))
+                .isEqualTo("rest-timer");
+        assertThat(SimpMessageHeaderAccessor.getFirstNativeHeader(
+                WebSocketFanoutMetrics.PUBLISHED_AT_HEADER, message.getHeaders())).isEqualTo("1767637800000");
+        assertThat(SimpMessageHeaderAccessor.wrap(message).getContentType()).hasToString("application/json");
+    }
+
+    @Test
+    void ignoresItsOwnFrames() {
+        byte[] frame = nodeB.encode(TICKS, "", Map.of(), new byte[0]);
+
+        nodeB.receive(frame);
+
+        verify(templateB, never()).send(any(String.class), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisBrokerBridge bridge(SimpMessagingTemplate template) {
+        ObjectProvider<SimpMessagingTemplate> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(template);
+        return new RedisBrokerBridge(mock(StringRedisTemplate.class), mock(RedisMessageListenerContainer.class),
+                provider, new WebSocketBrokerProperties(), new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,73 @@
+package com.fitstack.workout.service;
+
+import com.fitstack.workout.entity.UserExerciseStats;
+import com.fitstack.workout.entity.WorkoutSet;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The entity rebuild that {@link TrainingHistoryKernels#exerciseStats}
+ * replaced: group the user's sets by session, summarize each session and merge
+ * the summaries oldest first. Kept as the reference the kernel is tested and
+ * benchmarked against.
+ */
+final class ExerciseStatsReference {
+
+    private ExerciseStatsReference() {
+    }
+
+    /**
+     * Stats from a user's completed sets, ordered by session start
+     */
+    static List<UserExerciseStats> rebuild(Long userId, List<WorkoutSet> sets) {
+        Map<Long, List<WorkoutSet>> setsBySession = sets.stream()
+                .collect(Collectors.groupingBy(set -> set.getSession().getId(), LinkedHashMap::new,
+                        Collectors.toList()));
+
+        // Sessions arrive oldest first, so each merge sees the later session last
+        Map<Long, UserExerciseStats> byExercise = new LinkedHashMap<>();
+        setsBySession.forEach((sessionId, sessionSets) -> ExerciseStatsService
+                .summarize(userId, sessionId, sessionSets)
+                .forEach(stats -> byExercise.merge(stats.getExercise().getId(), stats,
+                        ExerciseStatsReference::merge)));
+        return new ArrayList<>(byExercise.values());
+    }
+
+    /**
+     * Same merge the upsert does in SQL: keep the bests, take the later session
+     */
+    private static UserExerciseStats merge(UserExerciseStats current, UserExerciseStats next) {
+        if (isGreater(next.getMaxWeight(), current.getMaxWeight())) {
+            current.setMaxWeight(next.getMaxWeight());
+            current.setMaxWeightAt(next.getMaxWeightAt());
+        }
+        if (next.getMaxReps() != null && (current.getMaxReps() == null || next.getMaxReps() > current.getMaxReps())) {
+            current.setMaxReps(next.getMaxReps());
+        }
+        if (isGreater(next.getMaxVolume(), current.getMaxVolume())) {
+            current.setMaxVolume(next.getMaxVolume());
+        }
+        if (isGreater(next.getBestOneRepMax(), current.getBestOneRepMax())) {
+            current.setBestOneRepMax(next.getBestOneRepMax());
+            current.setBestOneRepMaxAt(next.getBestOneRepMaxAt());
+        }
+        if (current.getLastSessionAt() == null
+                || (next.getLastSessionAt() != null && !next.getLastSessionAt().isBefore(current.getLastSessionAt()))) {
+            current.setLastSessionId(next.getLastSessionId());
+            current.setLastSessionAt(next.getLastSessionAt());
+            current.setLastSessionSets(next.getLastSessionSets());
+            current.setLastSessionAvgWeight(next.getLastSessionAvgWeight());
+            current.setLastSessionAvgReps(next.getLastSessionAvgReps());
+        }
+        return current;
+    }
+
+    private static boolean isGreater(BigDecimal value, BigDecimal than) {
+        return value != null && (than == null || value.compareTo(than) > 0);
+    }
+}
@@ -0,0 +1,87 @@
+package com.fitstack.workout.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryActiveSessionStoreTest {
+
+    private static final Long SESSION_ID = 7L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rejectsSetsOnceTheSessionIsRemoved() {
+        InMemoryActiveSessionStore store = new InMemoryActiveSessionStore("", 240);
+        store.saveSession(new ActiveSessionStore.ActiveSession(SESSION_ID, 1L, null));
+
+        assertThat(store.appendPending(set(1L, "a"))).contains(1L);
+        store.removeSession(SESSION_ID);
+
+        assertThat(store.appendPending(set(2L, "b"))).isEmpty();
+        assertThat(store.findPending(SESSION_ID)).extracting(ActiveSessionStore.PendingSet::id).containsExactly(1L);
+    }
+
+    @Test
+    void rejectsSetsForSessionsNeverLoaded() {
+        InMemoryActiveSessionStore store = new InMemoryActiveSessionStore("", 240);
+
+        assertThat(store.appendPending(set(1L, null))).isEmpty();
+        assertThat(store.findSessionsWithPending()).isEmpty();
+    }
+
+    @Test
+    void keepsTheFirstSetForAClientIdEvenAfterItIsFlushed() {
+        InMemoryActiveSessionStore store = new InMemoryActiveSessionStore("", 240);
+        store.saveSession(new ActiveSessionStore.ActiveSession(SESSION_ID, 1L, null));
+
+        assertThat(store.appendPending(set(1L, "a"))).contains(1L);
+        assertThat(store.appendPending(set(2L, "a"))).contains(1L);
+        store.removePending(SESSION_ID, List.of(1L));
+        assertThat(store.appendPending(set(3L, "a"))).contains(1L);
+        assertThat(store.appendPending(set(4L, null))).contains(4L);
+
+        assertThat(store.findPending(SESSION_ID)).extracting(ActiveSessionStore.PendingSet::id).containsExactly(4L);
+    }
+
+    @Test
+    void recoveredSetsKeepTheirClientIds() {
+        String journal = dir.resolve("active-sets.journal").toString();
+        InMemoryActiveSessionStore store = new InMemoryActiveSessionStore(journal, 240);
+        store.saveSession(new ActiveSessionStore.ActiveSession(SESSION_ID, 1L, null));
+        store.appendPending(set(1L, "a"));
+
+        InMemoryActiveSessionStore recovered = new InMemoryActiveSessionStore(journal, 240);
+        recovered.saveSession(new ActiveSessionStore.ActiveSession(SESSION_ID, 1L, null));
+
+        assertThat(recovered.appendPending(set(2L, "a"))).contains(1L);
+    }
+
+    @Test
+    void journalRecoversClientIdsWithSeparatorsAndLineBreaks() {
+        String journal = dir.resolve("active-sets.journal").toString();
+        InMemoryActiveSessionStore store = new InMemoryActiveSessionStore(journal, 240);
+        store.saveSession(new ActiveSessionStore.ActiveSession(SESSION_ID, 1L, null));
+        store.appendPending(set(1L, "a|b\n+7|2|3"));
+        store.appendPending(set(2L, null));
+
+        List<ActiveSessionStore.PendingSet> recovered = new InMemoryActiveSessionStore(journal, 240)
+                .findPending(SESSION_ID);
+
+        assertThat(recovered).extracting(ActiveSessionStore.PendingSet::id).containsExactly(1L, 2L);
+        assertThat(recovered).extracting(ActiveSessionStore.PendingSet::clientId)
+                .containsExactly("a|b\n+7|2|3", null);
+    }
+
+    private static ActiveSessionStore.PendingSet set(Long id, String clientId) {
+        return new ActiveSessionStore.PendingSet(id, SESSION_ID, 3L, 1, 10, new BigDecimal("60.00"),
+                LocalDateTime.of(2026, 1, 5, 18, 30), clientId);
+    }
+}
@@ -0,0 +1,163 @@
+package com.fitstack.workout.service;
+
+import com.fitstack.workout.dto.RestTimerMessage;
+import com.fitstack.workout.dto.WebSocketMessage.MessageType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Two timer services sharing one {@link InMemoryRestTimerStore}, standing in
+ * for two nodes sharing Redis.
+ */
+class RestTimerServiceTest {
+
+    private static final Long SESSION_ID = 7L;
+
+    private final RestTimerStore store = new InMemoryRestTimerStore();
+    private final WorkoutStreamService streamA = mock(WorkoutStreamService.class);
+    private final WorkoutStreamService streamB = mock(WorkoutStreamService.class);
+
+    private RestTimerService nodeA;
+    private RestTimerService nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = node(streamA);
+        nodeB = node(streamB);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.shutdown();
+        nodeB.shutdown();
+    }
+
+    @Test
+    void startPersistsTimerAndAnyNodeCanStopIt() {
+        nodeA.startRestTimer(SESSION_ID, 3L, 1, 90);
+
+        RestTimerStore.StoredTimer stored = store.find(SESSION_ID).orElseThrow();
+        assertThat(stored.totalSeconds()).isEqualTo(90);
+        assertThat(stored.isPaused()).isFalse();
+        assertThat(nodeB.isTimerActive(SESSION_ID)).isTrue();
+
+        nodeB.stopRestTimer(SESSION_ID);
+
+        assertThat(store.find(SESSION_ID)).isEmpty();
+        assertThat(nodeB.isTimerActive(SESSION_ID)).isFalse();
+    }
+
+    @Test
+    void anotherNodeCanPauseAndAdjustATimer() {
+        nodeA.startRestTimer(SESSION_ID, 3L, 1, 90);
+
+        nodeB.pauseRestTimer(SESSION_ID);
+        RestTimerStore.StoredTimer paused = store.find(SESSION_ID).orElseThrow();
+        assertThat(paused.isPaused()).isTrue();
+        assertThat(paused.deadline()).isNull();
+
+        nodeB.adjustRestTimer(SESSION_ID, 30);
+        assertThat(store.find(SESSION_ID).orElseThrow().pausedRemainingMs())
+                .isGreaterThan(paused.pausedRemainingMs());
+
+        verify(streamB).publish(eq(SESSION_ID), eq(MessageType.REST_TIMER_PAUSE), any(), any());
+        verify(streamB).publish(eq(SESSION_ID), eq(MessageType.REST_TIMER_ADJUST), any(), any());
+    }
+
+    @Test
+    void timerEndsExactlyOnceAcrossNodes() {
+        nodeA.startRestTimer(SESSION_ID, 3L, 1, 1);
+
+        ArgumentCaptor<RestTimerMessage> end = ArgumentCaptor.forClass(RestTimerMessage.class);
+        verify(streamA, timeout(3000)).publish(eq(SESSION_ID), eq(MessageType.REST_TIMER_END), end.capture(), any());
+        assertThat(end.getValue().isActive()).isFalse();
+        assertThat(store.find(SESSION_ID)).isEmpty();
+
+        // Nothing left for the other node's poller to fire
+        poller(nodeB).poll();
+        verify(streamB, after(200).never()).publish(eq(SESSION_ID), eq(MessageType.REST_TIMER_END), any(), any());
+    }
+
+    @Test
+    void pollerEndsTimersWhoseNodeWentAway() {
+        long overdue = System.currentTimeMillis() - 10_000;
+        store.save(new RestTimerStore.StoredTimer(SESSION_ID, "orphan", 3L, 1, 60,
+                overdue, -1));
+
+        poller(nodeB).poll();
+        poller(nodeB).poll();
+
+        verify(streamB, times(1)).publish(eq(SESSION_ID), eq(MessageType.REST_TIMER_END), any(), any());
+        assertThat(store.find(SESSION_ID)).isEmpty();
+    }
+
+    @Test
+    void pausedTimersAreNeverPolled() {
+        store.save(new RestTimerStore.StoredTimer(SESSION_ID, "paused", 3L, 1, 60,
+                null, 5_000));
+
+        poller(nodeB).poll();
+
+        verify(streamB, never()).publish(eq(SESSION_ID), eq(MessageType.REST_TIMER_END), any(), any());
+        assertThat(store.find(SESSION_ID)).isPresent();
+    }
+
+    @Test
+    void ticksOnlyRunWhileSomeNodeHasSubscribers() {
+        nodeA.startRestTimer(SESSION_ID, 3L, 1, 90);
+        verify(streamA, after(1500).never()).publish(eq(SESSION_ID), eq(MessageType.REST_TIMER_TICK), any(), any());
+
+        // A client on the other node subscribes to the ticks
+        store.saveTickSubscribers(SESSION_ID, "node-b", 1);
+        verify(streamA, timeout(1500).atLeast(2))
+                .publish(eq(SESSION_ID), eq(MessageType.REST_TIMER_TICK), any(), any());
+        verify(streamB, never()).publish(eq(SESSION_ID), eq(MessageType.REST_TIMER_TICK), any(), any());
+
+        store.saveTickSubscribers(SESSION_ID, "node-b", 0);
+        clearInvocations(streamA);
+        // At most one tick that was already running
+        verify(streamA, after(1500).atMost(1)).publish(eq(SESSION_ID), eq(MessageType.REST_TIMER_TICK), any(), any());
+    }
+
+    @Test
+    void claimOnlySucceedsForTheCurrentTimer() {
+        nodeA.startRestTimer(SESSION_ID, 3L, 1, 90);
+        String first = store.find(SESSION_ID).orElseThrow().timerId();
+        nodeA.adjustRestTimer(SESSION_ID, 10);
+
+        assertThat(store.claim(SESSION_ID, first)).isFalse();
+        String current = store.find(SESSION_ID).orElseThrow().timerId();
+        assertThat(store.claim(SESSION_ID, current)).isTrue();
+        assertThat(store.claim(SESSION_ID, current)).isFalse();
+    }
+
+    private RestTimerService node(WorkoutStreamService stream) {
+        RestTimerService service = new RestTimerService(stream, new SimpleMeterRegistry(), store);
+        ReflectionTestUtils.setField(service, "syncIntervalSeconds", 30L);
+        service.init();
+        return service;
+    }
+
+    private RestTimerExpiryPoller poller(RestTimerService service) {
+        RestTimerExpiryPoller poller = new RestTimerExpiryPoller(store, service);
+        ReflectionTestUtils.setField(poller, "leaseMs", 10_000L);
+        ReflectionTestUtils.setField(poller, "graceMs", 0L);
+        ReflectionTestUtils.setField(poller, "batchSize", 100);
+        return poller;
+    }
+}
@@ -0,0 +1,103 @@
+package com.fitstack.workout.service;
+
+import com.fitstack.workout.entity.Exercise;
+import com.fitstack.workout.entity.UserExerciseStats;
+import com.fitstack.workout.entity.WorkoutSession;
+import com.fitstack.workout.entity.WorkoutSet;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The columnar kernel against {@link ExerciseStatsReference}, the entity
+ * rebuild it replaced, on the same sets.
+ */
+class TrainingHistoryKernelsTest {
+
+    private static final Long USER_ID = 1L;
+    private static final int EXERCISES = 12;
+
+    private final Exercise[] exercises = new Exercise[EXERCISES];
+    private final List<WorkoutSet> entities = new ArrayList<>();
+    private final TrainingHistory.Builder history = new TrainingHistory.Builder(16);
+
+    TrainingHistoryKernelsTest() {
+        for (int i = 0; i < EXERCISES; i++) {
+            exercises[i] = Exercise.builder().id((long) i).name("Exercise " + i).build();
+        }
+    }
+
+    @Test
+    void matchesEntityRebuildOnRandomHistory() {
+        Random random = new Random(7);
+        LocalDateTime time = LocalDateTime.of(2024, 3, 1, 7, 0);
+        for (long session = 1; session <= 60; session++) {
+            time = time.plusDays(1 + random.nextInt(3));
+            int sets = 1 + random.nextInt(25);
+            for (int i = 0; i < sets; i++) {
+                time = time.plusSeconds(30 + random.nextInt(300));
+                // Zero weights (bodyweight) and 37+ reps have no one-rep max
+                int weight = random.nextInt(10) == 0 ? 0 : 250 + random.nextInt(200) * 125;
+                int reps = 1 + random.nextInt(40);
+                add(session, random.nextInt(EXERCISES), time, weight, reps);
+            }
+        }
+
+        assertMatchesReference();
+    }
+
+    @Test
+    void matchesEntityRebuildOnTiesAndMissingValues() {
+        LocalDateTime time = LocalDateTime.of(2024, 3, 1, 7, 0);
+        // Equal bests in a later session keep the earlier date
+        add(1, 0, time, 10000, 5);
+        add(1, 0, time.plusMinutes(3), 10000, 5);
+        add(2, 0, time.plusDays(2), 10000, 5);
+        // Sets without weight or reps still count towards the last session
+        add(2, 1, time.plusDays(2).plusMinutes(5), TrainingHistory.NO_WEIGHT, 12);
+        add(2, 1, time.plusDays(2).plusMinutes(8), 4050, TrainingHistory.NO_REPS);
+        add(3, 1, time.plusDays(4), TrainingHistory.NO_WEIGHT, TrainingHistory.NO_REPS);
+        add(3, 2, time.plusDays(4).plusMinutes(1), 6275, 7);
+
+        assertMatchesReference();
+    }
+
+    @Test
+    void emptyHistoryHasNoStats() {
+        assertThat(TrainingHistoryKernels.exerciseStats(USER_ID, TrainingHistory.empty(), id -> exercises[(int) id]))
+                .isEmpty();
+    }
+
+    private void assertMatchesReference() {
+        List<UserExerciseStats> expected = new ArrayList<>(ExerciseStatsReference.rebuild(USER_ID, entities));
+        expected.sort(Comparator.comparing(stats -> stats.getExercise().getId()));
+
+        List<UserExerciseStats> actual = TrainingHistoryKernels.exerciseStats(USER_ID, history.build(),
+                id -> exercises[(int) id]);
+
+        assertThat(actual)
+                .usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(expected);
+    }
+
+    private void add(long sessionId, int exercise, LocalDateTime completedAt, int weightCentis, int reps) {
+        entities.add(WorkoutSet.builder()
+                .session(WorkoutSession.builder().id(sessionId).userId(USER_ID).build())
+                .exercise(exercises[exercise])
+                .repsCompleted(reps == TrainingHistory.NO_REPS ? null : reps)
+                .weightUsed(weightCentis == TrainingHistory.NO_WEIGHT ? null : BigDecimal.valueOf(weightCentis, 2))
+                .completedAt(completedAt)
+                .build());
+        history.add(sessionId, exercises[exercise].getId(), completedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L,
+                weightCentis, reps);
+    }
+}
@@ -252,6 +252,8 @@ export const sessionApi = {
   completeSession: (id: number, data?: { notes?: string }) =>
     api.put(`/workouts/sessions/${id}/complete`, data),
   getHistory: () => api.get('/workouts/history'),
+  getHistoryPage: (params?: { cursor?: string; size?: number; summary?: boolean }) =>
+    api.get('/workouts/history/page', { params }),
 }
 
 // Nutrition - Foods API
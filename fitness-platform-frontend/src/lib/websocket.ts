@@ -19,16 +19,19 @@ export function createWebSocketClient(
 
   client.onConnect = () => {
     console.log('WebSocket connected')
-    client.subscribe(`/topic/workout/${sessionId}`, (message) => {
-      if (message.body) {
-        try {
-          const data = JSON.parse(message.body)
-          onMessage(data)
-        } catch (e) {
-          console.error('Failed to parse message:', e)
+    // Rest-timer ticks have their own destination; the server only sends them while subscribed
+    for (const destination of [`/topic/workout/${sessionId}`, `/topic/workout/${sessionId}/ticks`]) {
+      client.subscribe(destination, (message) => {
+        if (message.body) {
+          try {
+            const data = JSON.parse(message.body)
+            onMessage(data)
+          } catch (e) {
+            console.error('Failed to parse message:', e)
+          }
         }
-      }
-    })
+      })
+    }
   }
 
   client.onStompError = (frame) => {
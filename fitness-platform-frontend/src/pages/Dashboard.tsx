@@ -34,11 +34,11 @@ export default function Dashboard() {
         const [metricRes, goalsRes, historyRes] = await Promise.all([
           metricsApi.getLatestMetric().catch(() => ({ data: null })),
           goalsApi.getActiveGoals().catch(() => ({ data: [] })),
-          sessionApi.getHistory().catch(() => ({ data: [] })),
+          sessionApi.getHistoryPage({ size: 5, summary: true }).catch(() => ({ data: { sessions: [] } })),
         ])
         setLatestMetric(metricRes.data)
         setActiveGoals(goalsRes.data)
-        setRecentWorkouts(historyRes.data?.slice(0, 5) || [])
+        setRecentWorkouts(historyRes.data?.sessions || [])
       } catch (error) {
         console.error('Failed to fetch dashboard data:', error)
       } finally {
@@ -1,28 +1,42 @@
 import { useEffect, useState } from 'react'
 import { sessionApi } from '@/lib/api'
+import { Button } from '@/components/ui/button'
 import { Card, CardContent, CardDescription, CardHeader, CardTitle } from '@/components/ui/card'
 import { formatDate, formatDateTime, formatDuration } from '@/lib/utils'
 import { Loader2, Calendar, Dumbbell, Clock, History as HistoryIcon } from 'lucide-react'
-import type { WorkoutSession } from '@/types/session'
+import type { WorkoutHistoryPage, WorkoutSession } from '@/types/session'
 
 export default function WorkoutHistory() {
   const [sessions, setSessions] = useState<WorkoutSession[]>([])
+  const [nextCursor, setNextCursor] = useState<string | null>(null)
   const [isLoading, setIsLoading] = useState(true)
+  const [isLoadingMore, setIsLoadingMore] = useState(false)
+
+  const fetchPage = async (cursor?: string) => {
+    const response = await sessionApi.getHistoryPage({ cursor })
+    const page: WorkoutHistoryPage = response.data
+    setSessions((prev) => (cursor ? [...prev, ...page.sessions] : page.sessions))
+    setNextCursor(page.nextCursor)
+  }
 
   useEffect(() => {
-    const fetchHistory = async () => {
-      try {
-        const response = await sessionApi.getHistory()
-        setSessions(response.data)
-      } catch (error) {
-        console.error('Failed to fetch history:', error)
-      } finally {
-        setIsLoading(false)
-      }
-    }
-    fetchHistory()
+    fetchPage()
+      .catch((error) => console.error('Failed to fetch history:', error))
+      .finally(() => setIsLoading(false))
   }, [])
 
+  const handleLoadMore = async () => {
+    if (!nextCursor) return
+    setIsLoadingMore(true)
+    try {
+      await fetchPage(nextCursor)
+    } catch (error) {
+      console.error('Failed to fetch history:', error)
+    } finally {
+      setIsLoadingMore(false)
+    }
+  }
+
   const calculateDuration = (session: WorkoutSession) => {
     if (!session.completedAt) return null
     const start = new Date(session.startedAt).getTime()
@@ -133,6 +147,14 @@ export default function WorkoutHistory() {
               </Card>
             )
           })}
+          {nextCursor && (
+            <div className="flex justify-center">
+              <Button variant="outline" onClick={handleLoadMore} disabled={isLoadingMore}>
+                {isLoadingMore && <Loader2 className="h-4 w-4 mr-2 animate-spin" />}
+                Load more
+              </Button>
+            </div>
+          )}
         </div>
       )}
     </div>
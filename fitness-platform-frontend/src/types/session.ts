@@ -16,6 +16,11 @@ export interface WorkoutSession {
   sets: WorkoutSet[]
 }
 
+export interface WorkoutHistoryPage {
+  sessions: WorkoutSession[]
+  nextCursor: string | null
+}
+
 export interface WorkoutSet {
   id: number
   sessionId: number